@@ -0,0 +1,257 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Build step preparing the static assets, the application ones and those of the webjars,
+ * to be served with their content hash in their URL, and precompressed:
+ * <ul>
+ * <li>the relative {@code url(...)} links of the stylesheets are rewritten to the
+ * fingerprinted URL of their target, {@code name-<md5>.ext}, as the resource chain does
+ * not rewrite the links of precompressed stylesheets at runtime;</li>
+ * <li>text assets are compressed next to the original, as {@code .gz} and, if the
+ * {@code brotli} command is available, {@code .br}.</li>
+ * </ul>
+ * The compressed variants of the webjar assets, and their rewritten stylesheets, are
+ * written to the output directory, ahead of the webjars on the classpath. Runs with the
+ * JDK alone, as a source file:
+ *
+ * <pre class="code">
+ * java src/build/java/AssetPipeline.java target/classes &lt;classpath&gt;
+ * </pre>
+ */
+public class AssetPipeline {
+
+	private static final String STATIC = "static/";
+
+	private static final String WEBJARS = "META-INF/resources/webjars/";
+
+	private static final Set<String> COMPRESSED_TYPES = Set.of("css", "js", "svg", "ttf", "eot", "otf");
+
+	private static final Pattern CSS_URL = Pattern.compile("url\\(\\s*(['\"]?)([^'\")]+)\\1\\s*\\)");
+
+	// compressing smaller files saves less than the headers it adds
+	private static final int MIN_COMPRESSED_SIZE = 1024;
+
+	private final Path output;
+
+	// assets by path on the classpath, the static ones first
+	private final Map<String, byte[]> assets = new LinkedHashMap<>();
+
+	private final boolean brotli = brotliAvailable();
+
+	AssetPipeline(Path output) {
+		this.output = output;
+	}
+
+	public static void main(String[] args) throws IOException {
+		AssetPipeline pipeline = new AssetPipeline(Path.of(args[0]));
+		pipeline.readStaticAssets();
+		for (String entry : (args.length > 1) ? args[1].split(File.pathSeparator) : new String[0]) {
+			if (entry.endsWith(".jar") && entry.contains("webjars")) {
+				pipeline.readWebjarAssets(Path.of(entry));
+			}
+		}
+		int written = pipeline.process();
+		System.out.println("Prepared " + written + " assets" + (pipeline.brotli ? "" : ", brotli not available"));
+	}
+
+	private void readStaticAssets() throws IOException {
+		Path root = this.output.resolve(STATIC);
+		if (!Files.isDirectory(root)) {
+			return;
+		}
+		try (Stream<Path> files = Files.walk(root)) {
+			for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+				String path = STATIC + root.relativize(file).toString().replace(File.separatorChar, '/');
+				if (!path.endsWith(".gz") && !path.endsWith(".br")) {
+					this.assets.put(path, Files.readAllBytes(file));
+				}
+			}
+		}
+	}
+
+	// only the minified stylesheets and scripts, and the fonts they use, are served
+	private void readWebjarAssets(Path jar) throws IOException {
+		try (JarFile file = new JarFile(jar.toFile())) {
+			for (JarEntry entry : (Iterable<JarEntry>) file.stream()::iterator) {
+				String name = entry.getName();
+				if (name.startsWith(WEBJARS) && !entry.isDirectory()
+						&& (name.endsWith(".min.css") || name.endsWith(".min.js") || name.contains("/fonts/"))) {
+					this.assets.put(name, file.getInputStream(entry).readAllBytes());
+				}
+			}
+		}
+	}
+
+	private int process() throws IOException {
+		int written = 0;
+		for (Map.Entry<String, byte[]> asset : this.assets.entrySet()) {
+			String path = asset.getKey();
+			byte[] content = asset.getValue();
+			boolean changed = false;
+			if (path.endsWith(".css")) {
+				byte[] rewritten = rewriteLinks(path, content);
+				changed = !MessageDigest.isEqual(rewritten, content);
+				content = rewritten;
+			}
+			boolean compressed = COMPRESSED_TYPES.contains(extension(path)) && content.length >= MIN_COMPRESSED_SIZE;
+			if (!changed && !compressed) {
+				continue;
+			}
+			Path file = this.output.resolve(path);
+			Files.createDirectories(file.getParent());
+			if (changed) {
+				Files.write(file, content);
+			}
+			if (compressed) {
+				byte[] gzipped = gzip(content);
+				if (gzipped.length < content.length) {
+					Files.write(file.resolveSibling(file.getFileName() + ".gz"), gzipped);
+				}
+				if (this.brotli) {
+					brotli(file, content);
+				}
+			}
+			written++;
+		}
+		return written;
+	}
+
+	private byte[] rewriteLinks(String path, byte[] content) {
+		String css = new String(content, StandardCharsets.UTF_8);
+		Matcher matcher = CSS_URL.matcher(css);
+		StringBuilder rewritten = new StringBuilder();
+		while (matcher.find()) {
+			String link = matcher.group(2).trim();
+			String fingerprinted = fingerprint(path, link);
+			String replacement = (fingerprinted != null)
+					? "url(" + matcher.group(1) + fingerprinted + matcher.group(1) + ")" : matcher.group();
+			matcher.appendReplacement(rewritten, Matcher.quoteReplacement(replacement));
+		}
+		matcher.appendTail(rewritten);
+		return rewritten.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Return the link with the content hash of its target inserted before the extension,
+	 * as the content version strategy of the resource chain expects it, or {@code null}
+	 * if the link is not a relative link to a known asset.
+	 */
+	private String fingerprint(String stylesheet, String link) {
+		if (link.startsWith("data:") || link.startsWith("/") || link.startsWith("#") || link.contains("//")) {
+			return null;
+		}
+		int end = link.length();
+		for (char suffix : new char[] { '?', '#' }) {
+			int index = link.indexOf(suffix);
+			end = (index != -1) ? Math.min(end, index) : end;
+		}
+		String target = link.substring(0, end);
+		int dot = target.lastIndexOf('.');
+		byte[] content = this.assets
+			.get(Path.of(stylesheet).resolveSibling(target).normalize().toString().replace(File.separatorChar, '/'));
+		if (content == null || dot <= target.lastIndexOf('/')) {
+			return null;
+		}
+		return target.substring(0, dot) + "-" + md5(content) + target.substring(dot) + link.substring(end);
+	}
+
+	private static String md5(byte[] content) {
+		try {
+			return HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(content));
+		}
+		catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	private static byte[] gzip(byte[] content) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(content.length / 2);
+		try (OutputStream out = new GZIPOutputStream(bytes) {
+			{
+				this.def.setLevel(Deflater.BEST_COMPRESSION);
+			}
+		}) {
+			out.write(content);
+		}
+		catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+		return bytes.toByteArray();
+	}
+
+	// the brotli command reads the content from a file, webjar assets are not written
+	private static void brotli(Path file, byte[] content) throws IOException {
+		Path input = Files.createTempFile("asset", "." + extension(file.toString()));
+		try {
+			Files.write(input, content);
+			run("brotli", "--force", "--best", "--output=" + file + ".br", input.toString());
+		}
+		finally {
+			Files.delete(input);
+		}
+	}
+
+	private static boolean brotliAvailable() {
+		try {
+			return run("brotli", "--version");
+		}
+		catch (IOException ex) {
+			return false;
+		}
+	}
+
+	private static boolean run(String... command) throws IOException {
+		Process process = new ProcessBuilder(command).redirectErrorStream(true)
+			.redirectOutput(ProcessBuilder.Redirect.DISCARD)
+			.start();
+		try {
+			return process.waitFor(1, TimeUnit.MINUTES) && process.exitValue() == 0;
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	private static String extension(String path) {
+		return path.substring(path.lastIndexOf('.') + 1);
+	}
+
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic;
+
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.ComponentScan.Filter;
+import org.springframework.context.annotation.FilterType;
+
+/**
+ * Boots the PetClinic application for benchmarks. Equivalent to
+ * {@link PetClinicApplication}, except that test-only configuration and components that
+ * live on the benchmark classpath (such as the Selenium acceptance pages) are kept out of
+ * the context.
+ *
+ * @see PetClinicState
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration
+@ComponentScan(basePackageClasses = PetClinicApplication.class,
+		excludeFilters = { @Filter(type = FilterType.ASSIGNABLE_TYPE, classes = PetClinicApplication.class),
+				@Filter(type = FilterType.REGEX, pattern = { ".*Tests(\\$.*)?", ".*TestApplication",
+						"org\\.springframework\\.samples\\.petclinic\\.acceptance\\..*" }) })
+public class BenchmarkApplication {
+
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic;
+
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Shared JMH state: boots the application once per trial on the default H2 profile and
+ * loads a {@link SyntheticDataset} of the requested size. The size is controlled with
+ * JMH parameters, for example {@code -p owners=1000000}, and the cache of rendered
+ * template fragments with {@code -p fragmentCache=true,false}.
+ */
+@State(Scope.Benchmark)
+public class PetClinicState {
+
+	@Param("10000")
+	public int owners;
+
+	@Param("2")
+	public int petsPerOwner;
+
+	@Param("4")
+	public int visitsPerPet;
+
+	@Param("true")
+	public boolean fragmentCache;
+
+	private ConfigurableApplicationContext context;
+
+	private SyntheticDataset dataset;
+
+	private MockMvc mockMvc;
+
+	private TransactionTemplate transactionTemplate;
+
+	@Setup(Level.Trial)
+	public void start() {
+		this.context = new SpringApplicationBuilder(BenchmarkApplication.class)
+			.properties("server.port=0", "spring.docker.compose.enabled=false", "spring.main.banner-mode=off",
+					"logging.level.root=WARN", "petclinic.fragment-cache.enabled=" + this.fragmentCache)
+			.run();
+		this.dataset = new SyntheticDataset(this.context.getBean(JdbcTemplate.class), this.owners, this.petsPerOwner,
+				this.visitsPerPet);
+		this.dataset.load();
+		this.mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) this.context).build();
+		this.transactionTemplate = new TransactionTemplate(this.context.getBean(PlatformTransactionManager.class));
+	}
+
+	@TearDown(Level.Trial)
+	public void stop() {
+		this.context.close();
+	}
+
+	public <T> T getBean(Class<T> type) {
+		return this.context.getBean(type);
+	}
+
+	public SyntheticDataset getDataset() {
+		return this.dataset;
+	}
+
+	public MockMvc getMockMvc() {
+		return this.mockMvc;
+	}
+
+	/**
+	 * Transaction template for benchmarks that write through several repository calls
+	 * in one unit of work, as a transactional service method would.
+	 */
+	public TransactionTemplate getTransactionTemplate() {
+		return this.transactionTemplate;
+	}
+
+	/**
+	 * Run a controller call as a web request would: with an active request scope, and
+	 * without an enclosing transaction, as open session in view is turned off.
+	 * @param call the controller call
+	 * @return the result of the call
+	 */
+	public <T> T executeInRequest(Supplier<T> call) {
+		ServletRequestAttributes request = new ServletRequestAttributes(new MockHttpServletRequest());
+		RequestContextHolder.setRequestAttributes(request);
+		try {
+			return call.get();
+		}
+		finally {
+			request.requestCompleted();
+			RequestContextHolder.resetRequestAttributes();
+		}
+	}
+
+}
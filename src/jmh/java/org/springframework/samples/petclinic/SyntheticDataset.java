@@ -0,0 +1,156 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Deterministic synthetic data set loaded on top of the regular seed data, so that
+ * benchmarks run against realistically sized tables (10k to 10M owners).
+ * <p>
+ * Owner last names are drawn from a fixed pool of {@link #LAST_NAMES} surnames, so a
+ * search for one surname matches roughly {@code owners / LAST_NAMES} rows. Identifiers
+ * are assigned explicitly after the seed data and the id sequences are moved past them
+ * once loading is done, so the application can keep inserting rows afterwards.
+ * <p>
+ * Large data sets need a correspondingly large heap, since H2 keeps everything in
+ * memory: plan for roughly 1GB per million owners with the default shape.
+ */
+public class SyntheticDataset {
+
+	/**
+	 * Number of distinct last names used for synthetic owners.
+	 */
+	public static final int LAST_NAMES = 1000;
+
+	private static final int BATCH_SIZE = 1000;
+
+	private final JdbcTemplate jdbc;
+
+	private final int owners;
+
+	private final int petsPerOwner;
+
+	private final int visitsPerPet;
+
+	private final boolean mysql;
+
+	private int ownerBase;
+
+	private int petBase;
+
+	public SyntheticDataset(JdbcTemplate jdbc, int owners, int petsPerOwner, int visitsPerPet) {
+		this.jdbc = jdbc;
+		this.owners = owners;
+		this.petsPerOwner = petsPerOwner;
+		this.visitsPerPet = visitsPerPet;
+		this.mysql = "MySQL".equals(jdbc.execute(
+				(ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName()));
+	}
+
+	public void load() {
+		this.ownerBase = maxId("owners");
+		this.petBase = maxId("pets");
+		int visitBase = maxId("visits");
+		List<Integer> types = this.jdbc.queryForList("SELECT id FROM types ORDER BY id", Integer.class);
+		LocalDate today = LocalDate.now();
+
+		List<Object[]> ownerRows = new ArrayList<>(BATCH_SIZE);
+		List<Object[]> petRows = new ArrayList<>(BATCH_SIZE);
+		List<Object[]> visitRows = new ArrayList<>(BATCH_SIZE);
+		int visitId = visitBase;
+		for (int index = 0; index < this.owners; index++) {
+			int ownerId = ownerId(index);
+			ownerRows.add(new Object[] { ownerId, "First" + index, lastName(index % LAST_NAMES),
+					index + " Synthetic Street", "Benchmark City", String.format("%010d", index) });
+			for (int pet = 0; pet < this.petsPerOwner; pet++) {
+				int petId = petId(index, pet);
+				petRows.add(new Object[] { petId, "Pet" + index + "-" + pet, today.minusDays(index % 5000),
+						types.get(petId % types.size()), ownerId });
+				for (int visit = 0; visit < this.visitsPerPet; visit++) {
+					visitRows.add(new Object[] { ++visitId, petId, today.minusDays(visit * 30L), "checkup " + visit });
+				}
+			}
+			if (ownerRows.size() >= BATCH_SIZE) {
+				flush(ownerRows, petRows, visitRows);
+			}
+		}
+		flush(ownerRows, petRows, visitRows);
+
+		restartSequence("owners_seq", ownerId(this.owners));
+		restartSequence("pets_seq", petId(this.owners, 0));
+		restartSequence("visits_seq", visitId + 1);
+	}
+
+	private void flush(List<Object[]> ownerRows, List<Object[]> petRows, List<Object[]> visitRows) {
+		this.jdbc.batchUpdate(
+				"INSERT INTO owners (id, first_name, last_name, address, city, telephone) VALUES (?, ?, ?, ?, ?, ?)",
+				ownerRows);
+		this.jdbc.batchUpdate("INSERT INTO pets (id, name, birth_date, type_id, owner_id) VALUES (?, ?, ?, ?, ?)",
+				petRows);
+		this.jdbc.batchUpdate("INSERT INTO visits (id, pet_id, visit_date, description) VALUES (?, ?, ?, ?)",
+				visitRows);
+		ownerRows.clear();
+		petRows.clear();
+		visitRows.clear();
+	}
+
+	private int maxId(String table) {
+		Integer max = this.jdbc.queryForObject("SELECT MAX(id) FROM " + table, Integer.class);
+		return max != null ? max : 0;
+	}
+
+	private void restartSequence(String sequence, int next) {
+		if (this.mysql) {
+			// MySQL has no sequences, Hibernate keeps the next id in a table instead
+			this.jdbc.update("UPDATE " + sequence + " SET next_val = ?", next);
+		}
+		else {
+			this.jdbc.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + next);
+		}
+	}
+
+	public int getOwners() {
+		return this.owners;
+	}
+
+	public int ownerId(int index) {
+		return this.ownerBase + index + 1;
+	}
+
+	public int petId(int ownerIndex, int pet) {
+		return this.petBase + ownerIndex * this.petsPerOwner + pet + 1;
+	}
+
+	public static String lastName(int index) {
+		return String.format("Surname%04d", index);
+	}
+
+	public int randomOwnerIndex() {
+		return ThreadLocalRandom.current().nextInt(this.owners);
+	}
+
+	public String randomLastName() {
+		return lastName(ThreadLocalRandom.current().nextInt(Math.min(this.owners, LAST_NAMES)));
+	}
+
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * End-to-end benchmarks of full requests through Spring MVC, including Thymeleaf view
+ * rendering, using {@code MockMvc} so that no network stack is involved. Run with
+ * {@code -p fragmentCache=true,false} to measure the time and allocation saved per
+ * request by splicing in the cached layout and vet roster; the forks keep the difference
+ * above the run-to-run noise of a single JVM.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(3)
+public class ViewRenderingBenchmark {
+
+	@Benchmark
+	public String ownerDetails(PetClinicState state) throws Exception {
+		SyntheticDataset dataset = state.getDataset();
+		return render(state, "/owners/" + dataset.ownerId(dataset.randomOwnerIndex()));
+	}
+
+	@Benchmark
+	public String ownersList(PetClinicState state) throws Exception {
+		return render(state, "/owners?lastName=" + state.getDataset().randomLastName());
+	}
+
+	@Benchmark
+	public String vetList(PetClinicState state) throws Exception {
+		return render(state, "/vets.html");
+	}
+
+	@Benchmark
+	public String welcome(PetClinicState state) throws Exception {
+		return render(state, "/");
+	}
+
+	private String render(PetClinicState state, String uri) throws Exception {
+		return state.getMockMvc().perform(get(uri)).andReturn().getResponse().getContentAsString();
+	}
+
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Load benchmark of the running server over HTTP, comparing requests handled on the
+ * Tomcat platform thread pool with requests handled on virtual threads. More clients run
+ * concurrently than the pool has threads, and each request blocks on the database while
+ * rendering an owner with its pets and visits.
+ * <p>
+ * The {@code database} parameter selects the profile the server runs with, e.g.
+ * {@code -p database=h2,mysql,postgres}; MySQL and PostgreSQL must be running already,
+ * for instance with {@code docker compose up}. Virtual threads need Java 21 or later.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(256)
+public class WebLoadBenchmark {
+
+	@Benchmark
+	public int ownerDetails(Server server) throws IOException, InterruptedException {
+		return server.get("/owners/" + server.getDataset().ownerId(server.getDataset().randomOwnerIndex()));
+	}
+
+	/**
+	 * The application, served on a random port with the requested threading and database.
+	 */
+	@State(Scope.Benchmark)
+	public static class Server {
+
+		@Param({ "platform", "virtual" })
+		public String threads;
+
+		@Param("h2")
+		public String database;
+
+		@Param("10000")
+		public int owners;
+
+		@Param("50")
+		public int connections;
+
+		private ConfigurableApplicationContext context;
+
+		private SyntheticDataset dataset;
+
+		private HttpClient client;
+
+		private String baseUrl;
+
+		@Setup(Level.Trial)
+		public void start() {
+			boolean virtual = "virtual".equals(this.threads);
+			if (virtual && Runtime.version().feature() < 21) {
+				throw new IllegalStateException("Virtual threads need Java 21 or later, running on "
+						+ Runtime.version());
+			}
+			List<String> properties = new ArrayList<>(List.of("server.port=0", "spring.docker.compose.enabled=false",
+					"spring.main.banner-mode=off", "logging.level.root=WARN",
+					"spring.threads.virtual.enabled=" + virtual,
+					"spring.datasource.hikari.maximum-pool-size=" + this.connections));
+			SpringApplicationBuilder application = new SpringApplicationBuilder(BenchmarkApplication.class)
+				.properties(properties.toArray(String[]::new));
+			if (!"h2".equals(this.database)) {
+				application.profiles(this.database);
+			}
+			this.context = application.run();
+			this.dataset = new SyntheticDataset(this.context.getBean(JdbcTemplate.class), this.owners, 2, 4);
+			this.dataset.load();
+			this.baseUrl = "http://localhost:"
+					+ ((WebServerApplicationContext) this.context).getWebServer().getPort();
+			this.client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+		}
+
+		@TearDown(Level.Trial)
+		public void stop() {
+			this.context.close();
+		}
+
+		SyntheticDataset getDataset() {
+			return this.dataset;
+		}
+
+		int get(String path) throws IOException, InterruptedException {
+			int status = this.client
+				.send(HttpRequest.newBuilder(URI.create(this.baseUrl + path)).build(), BodyHandlers.discarding())
+				.statusCode();
+			if (status != 200) {
+				throw new IllegalStateException("GET " + path + " returned " + status);
+			}
+			return status;
+		}
+
+	}
+
+}
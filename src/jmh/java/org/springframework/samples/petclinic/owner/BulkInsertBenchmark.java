@@ -0,0 +1,88 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.samples.petclinic.PetClinicState;
+
+/**
+ * Benchmark for writing new owners, with their pets and visits, in bulk through the
+ * {@link OwnerRepository}. Each invocation saves {@value #OWNERS} owners in a single
+ * transaction and the score is reported per row inserted, so it reads directly as rows
+ * per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BulkInsertBenchmark {
+
+	static final int OWNERS = 100;
+
+	static final int PETS_PER_OWNER = 2;
+
+	static final int VISITS_PER_PET = 2;
+
+	static final int ROWS = OWNERS * (1 + PETS_PER_OWNER * (1 + VISITS_PER_PET));
+
+	@Benchmark
+	@OperationsPerInvocation(ROWS)
+	public int saveOwners(PetClinicState state) {
+		OwnerRepository owners = state.getBean(OwnerRepository.class);
+		List<PetType> types = state.getBean(PetTypeRegistry.class).getPetTypes();
+		return state.getTransactionTemplate().execute(status -> {
+			for (int index = 0; index < OWNERS; index++) {
+				owners.save(owner(index, types));
+			}
+			return OWNERS;
+		});
+	}
+
+	private Owner owner(int index, List<PetType> types) {
+		Owner owner = new Owner();
+		owner.setFirstName("Bulk" + index);
+		owner.setLastName("Insert");
+		owner.setAddress(index + " Batch Street");
+		owner.setCity("Benchmark City");
+		owner.setTelephone(String.format("%010d", index));
+		for (int petIndex = 0; petIndex < PETS_PER_OWNER; petIndex++) {
+			Pet pet = new Pet();
+			pet.setName("Bulk" + index + "-" + petIndex);
+			pet.setBirthDate(LocalDate.now().minusDays(index));
+			pet.setType(types.get(petIndex % types.size()));
+			for (int visitIndex = 0; visitIndex < VISITS_PER_PET; visitIndex++) {
+				Visit visit = new Visit();
+				visit.setDescription("checkup " + visitIndex);
+				pet.addVisit(visit);
+			}
+			owner.addPet(pet);
+		}
+		return owner;
+	}
+
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.samples.petclinic.PetClinicState;
+import org.springframework.samples.petclinic.SyntheticDataset;
+import org.springframework.ui.ExtendedModelMap;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.web.servlet.mvc.support.RedirectAttributesModelMap;
+
+/**
+ * Benchmarks calling the owner and visit controller handler methods directly, without
+ * the servlet and view rendering layers, with an active request scope. As open session
+ * in view is turned off, each repository call runs in its own transaction.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OwnerControllerBenchmark {
+
+	@Benchmark
+	public String processFindForm(PetClinicState state) {
+		OwnerController controller = state.getBean(OwnerController.class);
+		return state.executeInRequest(() -> {
+			Owner owner = new Owner();
+			owner.setLastName(state.getDataset().randomLastName());
+			return controller.processFindForm(1, owner, new BeanPropertyBindingResult(owner, "owner"),
+					new ExtendedModelMap());
+		});
+	}
+
+	@Benchmark
+	public String processNewVisitForm(PetClinicState state) {
+		VisitController controller = state.getBean(VisitController.class);
+		SyntheticDataset dataset = state.getDataset();
+		int index = dataset.randomOwnerIndex();
+		int ownerId = dataset.ownerId(index);
+		int petId = dataset.petId(index, 0);
+		return state.executeInRequest(() -> {
+			Visit visit = new Visit();
+			visit.setDescription("benchmark");
+			return controller.processNewVisitForm(ownerId, petId, visit, new BeanPropertyBindingResult(visit, "visit"),
+					new ExtendedModelMap(), new RedirectAttributesModelMap());
+		});
+	}
+
+}
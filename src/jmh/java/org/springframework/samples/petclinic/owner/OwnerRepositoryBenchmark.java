@@ -0,0 +1,75 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.samples.petclinic.PetClinicState;
+import org.springframework.samples.petclinic.SyntheticDataset;
+
+/**
+ * Benchmarks for the {@link OwnerRepository} queries behind the owner search and owner
+ * details pages.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OwnerRepositoryBenchmark {
+
+	@Benchmark
+	public Page<Owner> findByLastName(PetClinicState state) {
+		OwnerRepository owners = state.getBean(OwnerRepository.class);
+		return owners.findByLastName(state.getDataset().randomLastName(), PageRequest.of(0, 5));
+	}
+
+	@Benchmark
+	public Page<Owner> findByLastNameDeepPage(PetClinicState state) {
+		OwnerRepository owners = state.getBean(OwnerRepository.class);
+		int pages = Math.max(1, state.getDataset().getOwners() / 5);
+		return owners.findByLastName("", PageRequest.of(pages - 1, 5));
+	}
+
+	@Benchmark
+	public Page<OwnerSummary> findSummariesByLastName(PetClinicState state) {
+		OwnerRepository owners = state.getBean(OwnerRepository.class);
+		return owners.findSummariesByLastName(state.getDataset().randomLastName(), PageRequest.of(0, 5));
+	}
+
+	@Benchmark
+	public Page<OwnerSummary> findSummariesByLastNameDeepPage(PetClinicState state) {
+		OwnerRepository owners = state.getBean(OwnerRepository.class);
+		int pages = Math.max(1, state.getDataset().getOwners() / 5);
+		return owners.findSummariesByLastName("", PageRequest.of(pages - 1, 5));
+	}
+
+	@Benchmark
+	public Owner findById(PetClinicState state) {
+		SyntheticDataset dataset = state.getDataset();
+		return state.getBean(OwnerRepository.class).findById(dataset.ownerId(dataset.randomOwnerIndex()));
+	}
+
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.samples.petclinic.PetClinicState;
+import org.springframework.samples.petclinic.SyntheticDataset;
+
+/**
+ * Benchmarks for booking a visit, comparing the append-only {@link VisitRepository}
+ * insert with the former write through the {@link Owner} aggregate, which loads the
+ * owner, initializes the visit history of the pet and merges the owner back. Both run
+ * on several threads, so that bookings for the same owners contend as they would in
+ * production. Every booked visit stays in the database, so histories grow during the
+ * run as they do over time.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class VisitBookingBenchmark {
+
+	@Benchmark
+	public int appendVisit(PetClinicState state) {
+		SyntheticDataset dataset = state.getDataset();
+		int index = dataset.randomOwnerIndex();
+		return state.getBean(VisitRepository.class).addVisit(dataset.ownerId(index), dataset.petId(index, 0), visit());
+	}
+
+	@Benchmark
+	public Owner saveOwnerWithVisit(PetClinicState state) {
+		SyntheticDataset dataset = state.getDataset();
+		int index = dataset.randomOwnerIndex();
+		OwnerRepository owners = state.getBean(OwnerRepository.class);
+		return state.getTransactionTemplate().execute(status -> {
+			Owner owner = owners.findById(dataset.ownerId(index));
+			owner.addVisit(dataset.petId(index, 0), visit());
+			owners.save(owner);
+			return owner;
+		});
+	}
+
+	private Visit visit() {
+		Visit visit = new Visit();
+		visit.setDescription("benchmark");
+		return visit;
+	}
+
+}
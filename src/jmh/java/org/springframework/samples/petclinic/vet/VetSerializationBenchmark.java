@@ -0,0 +1,106 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.vet;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.beans.support.MutableSortDefinition;
+import org.springframework.beans.support.PropertyComparator;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Benchmarks for serving the vet list of {@code /vets}, without the database: the vets
+ * are built in memory, as they would be held by the "vets" cache. Run with
+ * {@code -prof gc} to compare the allocation of the specialties sorted once per vet
+ * with the former per-call reflective sort ({@code resortedSpecialties}).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VetSerializationBenchmark {
+
+	private static final String[] SPECIALTIES = { "surgery", "radiology", "dentistry" };
+
+	@Param("5000")
+	public int vets;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private Vets vetList;
+
+	@Setup
+	public void createVets() {
+		List<Specialty> specialties = new ArrayList<>();
+		for (int i = 0; i < SPECIALTIES.length; i++) {
+			Specialty specialty = new Specialty();
+			specialty.setId(i + 1);
+			specialty.setName(SPECIALTIES[i]);
+			specialties.add(specialty);
+		}
+		this.vetList = new Vets();
+		for (int i = 0; i < this.vets; i++) {
+			Vet vet = new Vet();
+			vet.setId(i + 1);
+			vet.setFirstName("Vet" + i);
+			vet.setLastName("Benchmark");
+			for (int s = 0; s < i % (specialties.size() + 1); s++) {
+				vet.addSpecialty(specialties.get(s));
+			}
+			this.vetList.getVetList().add(vet);
+		}
+	}
+
+	@Benchmark
+	public void specialties(Blackhole blackhole) {
+		for (Vet vet : this.vetList.getVetList()) {
+			blackhole.consume(vet.getSpecialties());
+		}
+	}
+
+	@Benchmark
+	public void resortedSpecialties(Blackhole blackhole) {
+		for (Vet vet : this.vetList.getVetList()) {
+			List<Specialty> sortedSpecs = new ArrayList<>(vet.getSpecialtiesInternal());
+			PropertyComparator.sort(sortedSpecs, new MutableSortDefinition("name", true, true));
+			blackhole.consume(Collections.unmodifiableList(sortedSpecs));
+		}
+	}
+
+	@Benchmark
+	public byte[] json() throws Exception {
+		return this.objectMapper.writeValueAsBytes(this.vetList);
+	}
+
+}
@@ -0,0 +1,320 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.importer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.samples.petclinic.importer.OwnerRecord.PetRecord;
+import org.springframework.samples.petclinic.importer.OwnerRecord.VisitRecord;
+import org.springframework.samples.petclinic.owner.Owner;
+import org.springframework.samples.petclinic.owner.OwnerRepository;
+import org.springframework.samples.petclinic.owner.Pet;
+import org.springframework.samples.petclinic.owner.OwnerSearchCache;
+import org.springframework.samples.petclinic.owner.PetTypeRegistry;
+import org.springframework.samples.petclinic.owner.PetValidator;
+import org.springframework.samples.petclinic.owner.Visit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.StringUtils;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.Errors;
+import org.springframework.validation.Validator;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Imports owners, with their pets and visits, from CSV or NDJSON files of any size.
+ * <p>
+ * The file is read one owner at a time and cut into chunks of
+ * {@link ImportProperties#chunkSize() chunkSize} owners. Chunks are validated and written
+ * by {@link ImportProperties#parallelism() parallelism} threads, each in a transaction of
+ * its own whose inserts are sent in JDBC batches. The reader waits while twice as many
+ * chunks as threads are in flight, so memory stays flat however large the file is.
+ * <p>
+ * Owners are validated as the forms validate them: bean validation for owners and visits,
+ * {@link PetValidator} for pets. An owner with any invalid part is rejected as a whole
+ * and the import goes on. A file that cannot be parsed stops the import.
+ * <p>
+ * Each chunk is recorded in the {@code import_checkpoints} table in the same transaction
+ * as its owners. Running the same job again over the same file, with the same chunk size,
+ * skips the chunks already written, so a failed import can be resumed where it stopped.
+ */
+@Component
+public class BulkImporter {
+
+	private static final Log logger = LogFactory.getLog(BulkImporter.class);
+
+	private static final int MAX_REJECTIONS = 100;
+
+	private final OwnerRepository owners;
+
+	private final PetTypeRegistry petTypes;
+
+	private final OwnerSearchCache ownerSearches;
+
+	private final Validator validator;
+
+	private final Validator petValidator = new PetValidator();
+
+	private final ObjectMapper objectMapper;
+
+	private final TransactionTemplate transactionTemplate;
+
+	private final JdbcTemplate jdbc;
+
+	private final ImportProperties properties;
+
+	BulkImporter(OwnerRepository owners, PetTypeRegistry petTypes, OwnerSearchCache ownerSearches,
+			jakarta.validation.Validator validator, ObjectMapper objectMapper,
+			PlatformTransactionManager transactionManager, JdbcTemplate jdbc, ImportProperties properties) {
+		this.owners = owners;
+		this.petTypes = petTypes;
+		this.ownerSearches = ownerSearches;
+		this.validator = new SpringValidatorAdapter(validator);
+		this.objectMapper = objectMapper;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.jdbc = jdbc;
+		this.properties = properties;
+	}
+
+	/**
+	 * Import the owners read from the given input.
+	 * @param job the name of the import, under which its progress is checkpointed
+	 * @param in the input to read, left open
+	 * @param format the format of the input
+	 * @return the outcome of the import
+	 * @throws IOException if the input cannot be read or parsed
+	 * @throws IllegalStateException if owners cannot be written, the chunks written
+	 * before the failure are kept and skipped when the job is run again
+	 */
+	public ImportResult importOwners(String job, InputStream in, ImportFormat format) throws IOException {
+		ImportRun run = new ImportRun(job, new HashSet<>(
+				this.jdbc.queryForList("SELECT chunk FROM import_checkpoints WHERE job = ?", Integer.class, job)));
+		int chunkSize = this.properties.chunkSize();
+		int parallelism = this.properties.parallelism();
+		ExecutorService executor = Executors.newFixedThreadPool(parallelism,
+				new CustomizableThreadFactory("import-" + job + "-"));
+		Semaphore inFlight = new Semaphore(parallelism * 2);
+		try (ImportReader reader = ImportReader.open(in, format, this.objectMapper)) {
+			int chunk = 0;
+			List<OwnerRecord> records = new ArrayList<>(chunkSize);
+			OwnerRecord record;
+			while (run.failure.get() == null && (record = reader.read()) != null) {
+				records.add(record);
+				if (records.size() == chunkSize) {
+					submit(executor, inFlight, run, chunk++, records);
+					records = new ArrayList<>(chunkSize);
+				}
+			}
+			if (!records.isEmpty() && run.failure.get() == null) {
+				submit(executor, inFlight, run, chunk, records);
+			}
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Import " + job + " interrupted", ex);
+		}
+		finally {
+			awaitTermination(executor);
+		}
+		if (run.failure.get() != null) {
+			throw new IllegalStateException("Import " + job + " failed", run.failure.get());
+		}
+		ImportResult result = run.result();
+		logger.info(String.format("Import %s: %d owners imported, %d rejected, %d skipped, %d rows at %.0f rows/s", job,
+				result.imported(), result.rejected(), result.skipped(), result.rows(), result.rowsPerSecond()));
+		return result;
+	}
+
+	private void submit(ExecutorService executor, Semaphore inFlight, ImportRun run, int chunk,
+			List<OwnerRecord> records) throws InterruptedException {
+		long first = run.records.getAndAdd(records.size()) + 1;
+		if (run.done.contains(chunk)) {
+			run.skipped.addAndGet(records.size());
+			return;
+		}
+		inFlight.acquire();
+		executor.execute(() -> {
+			try {
+				writeChunk(run, chunk, first, records);
+			}
+			catch (RuntimeException ex) {
+				run.failure.compareAndSet(null, ex);
+			}
+			finally {
+				inFlight.release();
+			}
+		});
+	}
+
+	private void writeChunk(ImportRun run, int chunk, long first, List<OwnerRecord> records) {
+		List<Owner> valid = new ArrayList<>(records.size());
+		int rows = 0;
+		for (int index = 0; index < records.size(); index++) {
+			Owner owner = toOwner(run, first + index, records.get(index));
+			if (owner != null) {
+				valid.add(owner);
+				rows += 1 + owner.getPets().size();
+				for (Pet pet : owner.getPets()) {
+					rows += pet.getVisits().size();
+				}
+			}
+		}
+		this.transactionTemplate.executeWithoutResult(status -> {
+			valid.forEach(this.owners::save);
+			this.jdbc.update("INSERT INTO import_checkpoints (job, chunk) VALUES (?, ?)", run.job, chunk);
+		});
+		this.ownerSearches.evict(valid.stream().map(Owner::getLastName).toArray(String[]::new));
+		run.imported.addAndGet(valid.size());
+		run.rows.addAndGet(rows);
+		if (logger.isDebugEnabled()) {
+			logger.debug("Import " + run.job + ": chunk " + chunk + " written, " + valid.size() + " owners");
+		}
+	}
+
+	private Owner toOwner(ImportRun run, long number, OwnerRecord record) {
+		Owner owner = new Owner();
+		owner.setFirstName(record.firstName());
+		owner.setLastName(record.lastName());
+		owner.setAddress(record.address());
+		owner.setCity(record.city());
+		owner.setTelephone(record.telephone());
+		List<String> errors = new ArrayList<>();
+		validate(this.validator, owner, "owner", errors);
+		for (PetRecord petRecord : record.pets()) {
+			Pet pet = new Pet();
+			pet.setName(petRecord.name());
+			pet.setBirthDate(parseDate(petRecord.birthDate(), "pet " + petRecord.name() + " birthDate", errors));
+			pet.setType(StringUtils.hasText(petRecord.type()) ? this.petTypes.findByName(petRecord.type()) : null);
+			validate(this.petValidator, pet, "pet " + petRecord.name(), errors);
+			for (VisitRecord visitRecord : petRecord.visits()) {
+				Visit visit = new Visit();
+				if (StringUtils.hasText(visitRecord.date())) {
+					visit.setDate(parseDate(visitRecord.date(), "visit date", errors));
+				}
+				visit.setDescription(visitRecord.description());
+				validate(this.validator, visit, "visit", errors);
+				pet.addVisit(visit);
+			}
+			owner.addPet(pet);
+		}
+		if (!errors.isEmpty()) {
+			run.reject(number, errors);
+			return null;
+		}
+		return owner;
+	}
+
+	private static void validate(Validator validator, Object target, String name, List<String> errors) {
+		Errors result = new BeanPropertyBindingResult(target, name);
+		validator.validate(target, result);
+		result.getFieldErrors()
+			.forEach(error -> errors.add(name + " " + error.getField() + ": " + error.getDefaultMessage()));
+	}
+
+	private static LocalDate parseDate(String value, String name, List<String> errors) {
+		if (!StringUtils.hasText(value)) {
+			return null;
+		}
+		try {
+			return LocalDate.parse(value);
+		}
+		catch (DateTimeParseException ex) {
+			errors.add(name + ": invalid date " + value);
+			return null;
+		}
+	}
+
+	private static void awaitTermination(ExecutorService executor) {
+		executor.shutdown();
+		try {
+			while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+				logger.info("Waiting for import chunks to be written");
+			}
+		}
+		catch (InterruptedException ex) {
+			executor.shutdownNow();
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Progress of a single import, shared by the reader and the writing threads.
+	 */
+	private static final class ImportRun {
+
+		private final String job;
+
+		private final Set<Integer> done;
+
+		private final long start = System.nanoTime();
+
+		private final AtomicLong records = new AtomicLong();
+
+		private final AtomicLong imported = new AtomicLong();
+
+		private final AtomicLong rejected = new AtomicLong();
+
+		private final AtomicLong skipped = new AtomicLong();
+
+		private final AtomicLong rows = new AtomicLong();
+
+		private final Queue<String> rejections = new ConcurrentLinkedQueue<>();
+
+		private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+		ImportRun(String job, Set<Integer> done) {
+			this.job = job;
+			this.done = done;
+		}
+
+		void reject(long number, List<String> errors) {
+			if (this.rejected.incrementAndGet() <= MAX_REJECTIONS) {
+				this.rejections.add("record " + number + ": " + String.join(", ", errors));
+			}
+		}
+
+		ImportResult result() {
+			long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - this.start);
+			double rowsPerSecond = this.rows.get() * 1000.0 / Math.max(elapsed, 1);
+			return new ImportResult(this.job, this.records.get(), this.imported.get(), this.rejected.get(),
+					this.skipped.get(), this.rows.get(), elapsed, rowsPerSecond, List.copyOf(this.rejections));
+		}
+
+	}
+
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.importer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint importing a file from the {@code petclinic.import.directory}, e.g.
+ * {@code POST /actuator/imports} with {@code {"file": "owners.csv"}}. The job is named
+ * after the file unless a {@code job} is given. Only available when the directory is
+ * configured, and left out of the web exposure unless explicitly exposed.
+ * <p>
+ * Imports run in the background, one at a time. Submitting one returns its id right away,
+ * which {@code GET /actuator/imports/{id}} polls for its state and outcome. The most
+ * recent imports are listed by {@code GET /actuator/imports}.
+ *
+ * @see BulkImporter
+ */
+@Component
+@Endpoint(id = "imports")
+@ConditionalOnProperty("petclinic.import.directory")
+class ImportEndpoint implements DisposableBean {
+
+	private static final Log logger = LogFactory.getLog(ImportEndpoint.class);
+
+	private static final int MAX_JOBS = 20;
+
+	private final BulkImporter importer;
+
+	private final Path directory;
+
+	private final Executor executor;
+
+	private final Map<String, ImportJob> jobs = new LinkedHashMap<>();
+
+	@Autowired
+	ImportEndpoint(BulkImporter importer, ImportProperties properties) {
+		this(importer, properties, Executors.newSingleThreadExecutor(new CustomizableThreadFactory("import-job-")));
+	}
+
+	ImportEndpoint(BulkImporter importer, ImportProperties properties, Executor executor) {
+		this.importer = importer;
+		this.directory = properties.directory().toAbsolutePath().normalize();
+		this.executor = executor;
+	}
+
+	@WriteOperation
+	public ImportJob importFile(String file, @Nullable String job) {
+		Path path = this.directory.resolve(file).normalize();
+		if (!path.startsWith(this.directory) || !Files.isRegularFile(path)) {
+			throw new InvalidEndpointRequestException("No import file " + file, "No import file");
+		}
+		ImportFormat format;
+		try {
+			format = ImportFormat.forFileName(file);
+		}
+		catch (IllegalArgumentException ex) {
+			throw new InvalidEndpointRequestException(ex.getMessage(), "Unsupported import file");
+		}
+		ImportJob submitted = new ImportJob(UUID.randomUUID().toString(),
+				(job != null) ? job : path.getFileName().toString(), file, ImportJob.State.QUEUED, Instant.now(), null,
+				null);
+		update(submitted);
+		this.executor.execute(() -> run(submitted, path, format));
+		return get(submitted.id());
+	}
+
+	@ReadOperation
+	public List<ImportJob> importJobs() {
+		synchronized (this.jobs) {
+			return new ArrayList<>(this.jobs.values());
+		}
+	}
+
+	@ReadOperation
+	@Nullable
+	public ImportJob importJob(@Selector String id) {
+		return get(id);
+	}
+
+	@Override
+	public void destroy() {
+		if (this.executor instanceof ExecutorService executorService) {
+			executorService.shutdownNow();
+		}
+	}
+
+	private void run(ImportJob job, Path path, ImportFormat format) {
+		update(job.with(ImportJob.State.RUNNING, null, null));
+		try (InputStream in = Files.newInputStream(path)) {
+			update(job.with(ImportJob.State.COMPLETED, this.importer.importOwners(job.job(), in, format), null));
+		}
+		catch (IOException | RuntimeException ex) {
+			logger.warn("Import " + job.job() + " of " + job.file() + " failed", ex);
+			update(job.with(ImportJob.State.FAILED, null, ex.getMessage()));
+		}
+	}
+
+	@Nullable
+	private ImportJob get(String id) {
+		synchronized (this.jobs) {
+			return this.jobs.get(id);
+		}
+	}
+
+	// keeps the most recent jobs, dropping the oldest finished ones first
+	private void update(ImportJob job) {
+		synchronized (this.jobs) {
+			this.jobs.put(job.id(), job);
+			Iterator<ImportJob> oldest = this.jobs.values().iterator();
+			while (this.jobs.size() > MAX_JOBS && oldest.hasNext()) {
+				if (oldest.next().isFinished()) {
+					oldest.remove();
+				}
+			}
+		}
+	}
+
+	/**
+	 * An import submitted through the endpoint.
+	 *
+	 * @param id the id of the import, to poll it with
+	 * @param job the name of the import job, under which its progress is checkpointed
+	 * @param file the file imported
+	 * @param state the state of the import
+	 * @param submitted when the import was submitted
+	 * @param result the outcome of the import, once completed
+	 * @param error why the import failed, if it did
+	 */
+	record ImportJob(String id, String job, String file, State state, Instant submitted, @Nullable ImportResult result,
+			@Nullable String error) {
+
+		ImportJob with(State state, @Nullable ImportResult result, @Nullable String error) {
+			return new ImportJob(this.id, this.job, this.file, state, this.submitted, result, error);
+		}
+
+		boolean isFinished() {
+			return this.state == State.COMPLETED || this.state == State.FAILED;
+		}
+
+		enum State {
+
+			QUEUED, RUNNING, COMPLETED, FAILED
+
+		}
+
+	}
+
+}
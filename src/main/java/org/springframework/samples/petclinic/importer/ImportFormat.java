@@ -0,0 +1,54 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.importer;
+
+import java.util.Locale;
+
+/**
+ * Formats of the files accepted by the {@link BulkImporter}.
+ */
+public enum ImportFormat {
+
+	/**
+	 * Comma separated values with a header line, one line per visit. Consecutive lines
+	 * with the same {@code owner} key describe the same owner, and lines of that owner
+	 * with the same {@code pet} name describe the same pet.
+	 */
+	CSV,
+
+	/**
+	 * Newline delimited JSON, one owner per line with its pets and their visits nested.
+	 */
+	NDJSON;
+
+	/**
+	 * Return the format of a file, based on its extension.
+	 * @param fileName the name of the file
+	 * @return the format of the file
+	 * @throws IllegalArgumentException if the extension is not supported
+	 */
+	public static ImportFormat forFileName(String fileName) {
+		String name = fileName.toLowerCase(Locale.ROOT);
+		if (name.endsWith(".csv")) {
+			return CSV;
+		}
+		if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+			return NDJSON;
+		}
+		throw new IllegalArgumentException("Unsupported import file " + fileName + ", expected .csv or .ndjson");
+	}
+
+}
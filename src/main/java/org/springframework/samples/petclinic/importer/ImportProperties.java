@@ -0,0 +1,34 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.importer;
+
+import java.nio.file.Path;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Tuning of the {@link BulkImporter}, bound from the {@code petclinic.import} properties.
+ *
+ * @param chunkSize number of owners written per transaction, and per checkpoint
+ * @param parallelism number of chunks validated and written concurrently
+ * @param directory directory the {@code imports} actuator endpoint reads files from, the
+ * endpoint is disabled if unset
+ */
+@ConfigurationProperties("petclinic.import")
+record ImportProperties(@DefaultValue("100") int chunkSize, @DefaultValue("2") int parallelism, Path directory) {
+
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.importer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import org.springframework.samples.petclinic.importer.OwnerRecord.PetRecord;
+import org.springframework.samples.petclinic.importer.OwnerRecord.VisitRecord;
+import org.springframework.util.StringUtils;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+
+/**
+ * Reads {@link OwnerRecord owner records} one at a time from an import file, so that only
+ * the owner being read is held in memory whatever the size of the file.
+ */
+abstract class ImportReader implements Closeable {
+
+	private static final CsvMapper csvMapper = new CsvMapper();
+
+	/**
+	 * Open a reader over the given input.
+	 * @param in the input to read, closed with the reader
+	 * @param format the format of the input
+	 * @param objectMapper the mapper used to read JSON
+	 * @return the reader
+	 * @throws IOException if the input cannot be read
+	 */
+	static ImportReader open(InputStream in, ImportFormat format, ObjectMapper objectMapper) throws IOException {
+		return switch (format) {
+			case CSV -> new CsvImportReader(
+					csvMapper.readerFor(CsvRow.class).with(CsvSchema.emptySchema().withHeader()).readValues(in));
+			case NDJSON -> new NdjsonImportReader(objectMapper.readerFor(OwnerRecord.class).readValues(in));
+		};
+	}
+
+	/**
+	 * Read the next owner.
+	 * @return the next owner, or {@literal null} at the end of the input
+	 * @throws IOException if the input cannot be read or parsed
+	 */
+	abstract OwnerRecord read() throws IOException;
+
+	private static final class NdjsonImportReader extends ImportReader {
+
+		private final MappingIterator<OwnerRecord> records;
+
+		NdjsonImportReader(MappingIterator<OwnerRecord> records) {
+			this.records = records;
+		}
+
+		@Override
+		OwnerRecord read() throws IOException {
+			return this.records.hasNextValue() ? this.records.nextValue() : null;
+		}
+
+		@Override
+		public void close() throws IOException {
+			this.records.close();
+		}
+
+	}
+
+	private static final class CsvImportReader extends ImportReader {
+
+		private final MappingIterator<CsvRow> rows;
+
+		private CsvRow next;
+
+		CsvImportReader(MappingIterator<CsvRow> rows) {
+			this.rows = rows;
+		}
+
+		@Override
+		OwnerRecord read() throws IOException {
+			CsvRow first = nextRow();
+			if (first == null) {
+				return null;
+			}
+			List<PetRecord> pets = new ArrayList<>();
+			String petName = null;
+			List<VisitRecord> visits = null;
+			CsvRow row = first;
+			do {
+				this.next = null;
+				if (StringUtils.hasText(row.pet())) {
+					if (!row.pet().equals(petName)) {
+						petName = row.pet();
+						visits = new ArrayList<>();
+						pets.add(new PetRecord(row.pet(), row.birthDate(), row.type(), visits));
+					}
+					if (StringUtils.hasText(row.visitDate()) || StringUtils.hasText(row.description())) {
+						visits.add(new VisitRecord(row.visitDate(), row.description()));
+					}
+				}
+				row = nextRow();
+			}
+			while (row != null && Objects.equals(row.owner(), first.owner()));
+			return new OwnerRecord(first.firstName(), first.lastName(), first.address(), first.city(),
+					first.telephone(), pets);
+		}
+
+		private CsvRow nextRow() throws IOException {
+			if (this.next == null && this.rows.hasNextValue()) {
+				this.next = this.rows.nextValue();
+			}
+			return this.next;
+		}
+
+		@Override
+		public void close() throws IOException {
+			this.rows.close();
+		}
+
+	}
+
+	/**
+	 * A line of a CSV import file.
+	 */
+	record CsvRow(@JsonProperty("owner") String owner, @JsonProperty("first_name") String firstName,
+			@JsonProperty("last_name") String lastName, @JsonProperty("address") String address,
+			@JsonProperty("city") String city, @JsonProperty("telephone") String telephone,
+			@JsonProperty("pet") String pet, @JsonProperty("birth_date") String birthDate,
+			@JsonProperty("type") String type, @JsonProperty("visit_date") String visitDate,
+			@JsonProperty("description") String description) {
+
+	}
+
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.importer;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk import.
+ *
+ * @param job the name of the import job
+ * @param records the number of owner records read
+ * @param imported the number of owners written
+ * @param rejected the number of owners rejected as invalid
+ * @param skipped the number of owners skipped as already written by an earlier run
+ * @param rows the number of rows written, owners, pets and visits included
+ * @param elapsedMillis the duration of the import, in milliseconds
+ * @param rowsPerSecond the number of rows written per second
+ * @param rejections why owners were rejected, for the first ones only
+ */
+public record ImportResult(String job, long records, long imported, long rejected, long skipped, long rows,
+		long elapsedMillis, double rowsPerSecond, List<String> rejections) {
+
+}
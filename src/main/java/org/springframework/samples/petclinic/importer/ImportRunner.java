@@ -0,0 +1,61 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.importer;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Imports the files given as {@code --import} arguments on startup, each as a job named
+ * after the file, e.g.
+ *
+ * <pre class="code">
+ * java -jar petclinic.jar --spring.main.web-application-type=none --import=owners.csv
+ * </pre>
+ *
+ * @see BulkImporter
+ */
+@Component
+class ImportRunner implements ApplicationRunner {
+
+	private final BulkImporter importer;
+
+	ImportRunner(BulkImporter importer) {
+		this.importer = importer;
+	}
+
+	@Override
+	public void run(ApplicationArguments args) throws Exception {
+		List<String> files = args.getOptionValues("import");
+		if (files == null) {
+			return;
+		}
+		for (String file : files) {
+			Path path = Path.of(file);
+			try (InputStream in = Files.newInputStream(path)) {
+				this.importer.importOwners(path.getFileName().toString(), in,
+						ImportFormat.forFileName(path.toString()));
+			}
+		}
+	}
+
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.importer;
+
+import java.util.List;
+
+/**
+ * An owner as read from an import file, with its pets and their visits. Values are kept
+ * as they were read, they are only converted and validated when the record is imported.
+ *
+ * @param firstName the first name of the owner
+ * @param lastName the last name of the owner
+ * @param address the address of the owner
+ * @param city the city of the owner
+ * @param telephone the telephone of the owner
+ * @param pets the pets of the owner
+ */
+record OwnerRecord(String firstName, String lastName, String address, String city, String telephone,
+		List<PetRecord> pets) {
+
+	OwnerRecord {
+		pets = (pets != null) ? pets : List.of();
+	}
+
+	/**
+	 * A pet as read from an import file.
+	 *
+	 * @param name the name of the pet
+	 * @param birthDate the birth date of the pet, as {@code yyyy-MM-dd}
+	 * @param type the name of the type of the pet
+	 * @param visits the visits of the pet
+	 */
+	record PetRecord(String name, String birthDate, String type, List<VisitRecord> visits) {
+
+		PetRecord {
+			visits = (visits != null) ? visits : List.of();
+		}
+
+	}
+
+	/**
+	 * A visit as read from an import file.
+	 *
+	 * @param date the date of the visit, as {@code yyyy-MM-dd}, today if unset
+	 * @param description the description of the visit
+	 */
+	record VisitRecord(String date, String description) {
+
+	}
+
+}
@@ -15,9 +15,11 @@
  */
 package org.springframework.samples.petclinic.owner;
 
-import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
+import org.hibernate.annotations.OptimisticLock;
 import org.springframework.core.style.ToStringCreator;
 import org.springframework.samples.petclinic.model.Person;
 import org.springframework.util.Assert;
@@ -27,14 +29,31 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.JoinColumn;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.NamedSubgraph;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.OrderBy;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.NotBlank;
 
 /**
  * Simple JavaBean domain object representing an owner.
+ * <p>
+ * The pets (and their visits) are loaded lazily by default. Each use case picks one of
+ * the named entity graphs declared here to say how much of the aggregate it needs:
+ * {@link #SUMMARY_GRAPH} for the owner alone and {@link #PETS_GRAPH} for the owner with
+ * its pets and their types. The visits are read on their own, through the
+ * {@link VisitRepository}. The pets are held in a set, so that a fetch plan joining them
+ * with one of their collections yields each pet once rather than once per element.
+ * <p>
+ * The {@link #getVersion() version} of the owner changes whenever the aggregate does,
+ * including its pets and visits, whose writers bump it explicitly. The pets are left out
+ * of the optimistic lock, so that adding one does not bump it a second time. It
+ * identifies the state of the aggregate, e.g. as the entity tag of the owner details
+ * page.
  *
  * @author Ken Krebs
  * @author Juergen Hoeller
@@ -44,8 +63,22 @@ import jakarta.validation.constraints.NotBlank;
  */
 @Entity
 @Table(name = "owners")
+@NamedEntityGraph(name = Owner.SUMMARY_GRAPH)
+@NamedEntityGraph(name = Owner.PETS_GRAPH, attributeNodes = @NamedAttributeNode(value = "pets", subgraph = "pet"),
+		subgraphs = @NamedSubgraph(name = "pet", attributeNodes = @NamedAttributeNode("type")))
 public class Owner extends Person {
 
+	/**
+	 * Fetch plan for the owner only, as rendered in the owners list and the owner form.
+	 */
+	public static final String SUMMARY_GRAPH = "Owner.summary";
+
+	/**
+	 * Fetch plan for the owner with its pets and their types, as needed by the pet forms
+	 * and the owner details page.
+	 */
+	public static final String PETS_GRAPH = "Owner.pets";
+
 	@Column(name = "address")
 	@NotBlank
 	private String address;
@@ -59,10 +92,15 @@ public class Owner extends Person {
 	@Pattern(regexp = "\\d{10}", message = "Telephone must be a 10-digit number")
 	private String telephone;
 
-	@OneToMany(cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+	@Version
+	@Column(name = "version")
+	private Integer version;
+
+	@OneToMany(cascade = CascadeType.ALL, fetch = FetchType.LAZY)
 	@JoinColumn(name = "owner_id")
 	@OrderBy("name")
-	private List<Pet> pets = new ArrayList<>();
+	@OptimisticLock(excluded = true)
+	private Set<Pet> pets = new LinkedHashSet<>();
 
 	public String getAddress() {
 		return this.address;
@@ -88,13 +126,17 @@ public class Owner extends Person {
 		this.telephone = telephone;
 	}
 
+	public Integer getVersion() {
+		return this.version;
+	}
+
 	public List<Pet> getPets() {
-		return this.pets;
+		return List.copyOf(this.pets);
 	}
 
 	public void addPet(Pet pet) {
 		if (pet.isNew()) {
-			getPets().add(pet);
+			this.pets.add(pet);
 		}
 	}
 
@@ -113,7 +155,7 @@ public class Owner extends Person {
 	 * @return a pet if pet id is already in use
 	 */
 	public Pet getPet(Integer id) {
-		for (Pet pet : getPets()) {
+		for (Pet pet : this.pets) {
 			if (!pet.isNew()) {
 				Integer compId = pet.getId();
 				if (compId.equals(id)) {
@@ -131,7 +173,7 @@ public class Owner extends Person {
 	 */
 	public Pet getPet(String name, boolean ignoreNew) {
 		name = name.toLowerCase();
-		for (Pet pet : getPets()) {
+		for (Pet pet : this.pets) {
 			String compName = pet.getName();
 			if (compName != null && compName.equalsIgnoreCase(name)) {
 				if (!ignoreNew || !pet.isNew()) {
@@ -16,8 +16,10 @@
 package org.springframework.samples.petclinic.owner;
 
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -31,7 +33,9 @@ import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.support.RequestContextUtils;
 
 import jakarta.validation.Valid;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
@@ -47,10 +51,18 @@ class OwnerController {
 
 	private static final String VIEWS_OWNER_CREATE_OR_UPDATE_FORM = "owners/createOrUpdateOwnerForm";
 
+	private static final int PAGE_SIZE = 5;
+
 	private final OwnerRepository owners;
 
-	public OwnerController(OwnerRepository clinicService) {
+	private final OwnerLoader ownerLoader;
+
+	private final OwnerSearchCache ownerSearches;
+
+	public OwnerController(OwnerRepository clinicService, OwnerLoader ownerLoader, OwnerSearchCache ownerSearches) {
 		this.owners = clinicService;
+		this.ownerLoader = ownerLoader;
+		this.ownerSearches = ownerSearches;
 	}
 
 	@InitBinder
@@ -60,7 +72,7 @@ class OwnerController {
 
 	@ModelAttribute("owner")
 	public Owner findOwner(@PathVariable(name = "ownerId", required = false) Integer ownerId) {
-		return ownerId == null ? new Owner() : this.owners.findById(ownerId);
+		return ownerId == null ? new Owner() : this.ownerLoader.findSummaryById(ownerId);
 	}
 
 	@GetMapping("/owners/new")
@@ -78,6 +90,7 @@ class OwnerController {
 		}
 
 		this.owners.save(owner);
+		this.ownerSearches.evict(owner.getLastName());
 		redirectAttributes.addFlashAttribute("message", "New Owner Created");
 		return "redirect:/owners/" + owner.getId();
 	}
@@ -96,7 +109,7 @@ class OwnerController {
 		}
 
 		// find owners by last name
-		Page<Owner> ownersResults = findPaginatedForOwnersLastName(page, owner.getLastName());
+		Page<OwnerSummary> ownersResults = findPaginatedForOwnersLastName(page, owner.getLastName());
 		if (ownersResults.isEmpty()) {
 			// no owners found
 			result.rejectValue("lastName", "notFound", "not found");
@@ -105,16 +118,55 @@ class OwnerController {
 
 		if (ownersResults.getTotalElements() == 1) {
 			// 1 owner found
-			owner = ownersResults.iterator().next();
-			return "redirect:/owners/" + owner.getId();
+			return "redirect:/owners/" + ownersResults.iterator().next().getId();
 		}
 
 		// multiple owners found
 		return addPaginationModel(page, model, ownersResults);
 	}
 
-	private String addPaginationModel(int page, Model model, Page<Owner> paginated) {
-		List<Owner> listOwners = paginated.getContent();
+	/**
+	 * Keyset-paginated variant of {@link #processFindForm}, selected by the presence of a
+	 * {@code cursor} parameter (empty for the first page). Each page seeks past the
+	 * previous one on {@code (last_name, id)}, so deep pages cost the same as the first
+	 * one, and owners are only counted once, on the first page.
+	 */
+	@GetMapping(value = "/owners", params = "cursor")
+	public String processFindFormByCursor(@RequestParam String cursor, Owner owner, BindingResult result, Model model) {
+		if (owner.getLastName() == null) {
+			owner.setLastName("");
+		}
+
+		OwnerSearchCursor position = OwnerSearchCursor.decode(cursor);
+		// fetch one extra owner to find out whether there is a next page
+		List<OwnerSummary> ownersResults = this.owners.findSummariesByLastNameAfter(owner.getLastName(),
+				position.getLastName(), position.getId(), Limit.of(PAGE_SIZE + 1));
+		boolean hasNext = ownersResults.size() > PAGE_SIZE;
+		if (position.isFirst() && ownersResults.isEmpty()) {
+			// no owners found
+			result.rejectValue("lastName", "notFound", "not found");
+			return "owners/findOwners";
+		}
+
+		if (position.isFirst() && ownersResults.size() == 1) {
+			// 1 owner found
+			return "redirect:/owners/" + ownersResults.get(0).getId();
+		}
+
+		// multiple owners found
+		long total = position.isFirst() ? this.owners.countByLastNameStartingWith(owner.getLastName())
+				: position.getTotal();
+		List<OwnerSummary> listOwners = hasNext ? ownersResults.subList(0, PAGE_SIZE) : ownersResults;
+		model.addAttribute("listOwners", listOwners);
+		model.addAttribute("approximateTotal", total);
+		if (hasNext) {
+			model.addAttribute("nextCursor", OwnerSearchCursor.after(listOwners.get(PAGE_SIZE - 1), total).encode());
+		}
+		return "owners/ownersList";
+	}
+
+	private String addPaginationModel(int page, Model model, Page<OwnerSummary> paginated) {
+		List<OwnerSummary> listOwners = paginated.getContent();
 		model.addAttribute("currentPage", page);
 		model.addAttribute("totalPages", paginated.getTotalPages());
 		model.addAttribute("totalItems", paginated.getTotalElements());
@@ -122,15 +174,14 @@ class OwnerController {
 		return "owners/ownersList";
 	}
 
-	private Page<Owner> findPaginatedForOwnersLastName(int page, String lastname) {
-		int pageSize = 5;
-		Pageable pageable = PageRequest.of(page - 1, pageSize);
-		return owners.findByLastName(lastname, pageable);
+	private Page<OwnerSummary> findPaginatedForOwnersLastName(int page, String lastname) {
+		Pageable pageable = PageRequest.of(page - 1, PAGE_SIZE);
+		return this.ownerSearches.findSummariesByLastName(lastname, pageable);
 	}
 
 	@GetMapping("/owners/{ownerId}/edit")
 	public String initUpdateOwnerForm(@PathVariable("ownerId") int ownerId, Model model) {
-		Owner owner = this.owners.findById(ownerId);
+		Owner owner = this.ownerLoader.findSummaryById(ownerId);
 		model.addAttribute(owner);
 		return VIEWS_OWNER_CREATE_OR_UPDATE_FORM;
 	}
@@ -143,22 +194,39 @@ class OwnerController {
 			return VIEWS_OWNER_CREATE_OR_UPDATE_FORM;
 		}
 
+		// the bound owner already holds the new last name, searches for the old one are
+		// evicted too
+		Owner previous = this.owners.findSummaryById(ownerId);
 		owner.setId(ownerId);
 		this.owners.save(owner);
+		this.ownerSearches.evict((previous != null) ? previous.getLastName() : null, owner.getLastName());
 		redirectAttributes.addFlashAttribute("message", "Owner Values Updated");
 		return "redirect:/owners/{ownerId}";
 	}
 
 	/**
-	 * Custom handler for displaying an owner.
+	 * Custom handler for displaying an owner. The page is tagged with the version of the
+	 * owner, which is already loaded by {@link #findOwner}, and the locale it is rendered
+	 * in, so a client holding the current page gets a 304 before the pets and visits are
+	 * loaded and rendered. Only the most recent visits of each pet are shown, older ones
+	 * are paged through {@link VisitController#showVisitHistory}. Pages carrying a flash
+	 * message are always rendered.
 	 * @param ownerId the ID of the owner to display
+	 * @param owner the owner, without its pets
+	 * @param request the current request
+	 * @param locale the locale of the request
 	 * @return a ModelMap with the model attributes for the view
 	 */
 	@GetMapping("/owners/{ownerId}")
-	public ModelAndView showOwner(@PathVariable("ownerId") int ownerId) {
+	public ModelAndView showOwner(@PathVariable("ownerId") int ownerId,
+			@ModelAttribute(name = "owner", binding = false) Owner owner, ServletWebRequest request, Locale locale) {
+		if (owner != null && owner.getVersion() != null
+				&& RequestContextUtils.getInputFlashMap(request.getRequest()) == null && request.checkNotModified(
+						"W/\"" + ownerId + "-" + owner.getVersion() + "-" + locale.toLanguageTag() + "\"")) {
+			return null;
+		}
 		ModelAndView mav = new ModelAndView("owners/ownerDetails");
-		Owner owner = this.owners.findById(ownerId);
-		mav.addObject(owner);
+		mav.addObject("owner", this.ownerLoader.findRecentDetailsById(ownerId));
 		return mav;
 	}
 
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read model of the owner details page: an owner with its pets and their most recent
+ * visits, copied out of the persistence context so that rendering cannot trigger any lazy
+ * loading. Older visits are reached through the visit history of each pet.
+ *
+ * @see OwnerLoader#findRecentDetailsById(int)
+ */
+public final class OwnerDetails {
+
+	private final Integer id;
+
+	private final String firstName;
+
+	private final String lastName;
+
+	private final String address;
+
+	private final String city;
+
+	private final String telephone;
+
+	private final List<PetDetails> pets;
+
+	private OwnerDetails(Owner owner, Map<Integer, List<VisitSummary>> recentVisits, int window) {
+		this.id = owner.getId();
+		this.firstName = owner.getFirstName();
+		this.lastName = owner.getLastName();
+		this.address = owner.getAddress();
+		this.city = owner.getCity();
+		this.telephone = owner.getTelephone();
+		this.pets = owner.getPets()
+			.stream()
+			.map(pet -> new PetDetails(pet, recentVisits.getOrDefault(pet.getId(), List.of()), window))
+			.toList();
+	}
+
+	/**
+	 * Copy an owner loaded with its pets and their types, together with the most recent
+	 * visits of each pet.
+	 * @param owner the owner, or {@literal null}
+	 * @param recentVisits the most recent visits by pet id, most recent first, holding
+	 * one visit more than the window if the pet has older visits
+	 * @param window the number of visits shown per pet
+	 * @return the read model, or {@literal null} if no owner was given
+	 */
+	public static OwnerDetails of(Owner owner, Map<Integer, List<VisitSummary>> recentVisits, int window) {
+		return (owner != null) ? new OwnerDetails(owner, recentVisits, window) : null;
+	}
+
+	public Integer getId() {
+		return this.id;
+	}
+
+	public String getFirstName() {
+		return this.firstName;
+	}
+
+	public String getLastName() {
+		return this.lastName;
+	}
+
+	public String getAddress() {
+		return this.address;
+	}
+
+	public String getCity() {
+		return this.city;
+	}
+
+	public String getTelephone() {
+		return this.telephone;
+	}
+
+	public List<PetDetails> getPets() {
+		return this.pets;
+	}
+
+	/**
+	 * Return the pet with the given id.
+	 * @param id the id of the pet
+	 * @return the pet, or {@literal null} if the owner has no such pet
+	 */
+	public PetDetails getPet(Integer id) {
+		return this.pets.stream().filter(pet -> id.equals(pet.getId())).findFirst().orElse(null);
+	}
+
+	/**
+	 * A pet of the owner, with its most recent visits ordered by date.
+	 */
+	public static final class PetDetails {
+
+		private final Integer id;
+
+		private final String name;
+
+		private final LocalDate birthDate;
+
+		private final String type;
+
+		private final List<VisitDetails> visits;
+
+		private final String olderVisits;
+
+		private PetDetails(Pet pet, List<VisitSummary> recentVisits, int window) {
+			this.id = pet.getId();
+			this.name = pet.getName();
+			this.birthDate = pet.getBirthDate();
+			this.type = (pet.getType() != null) ? pet.getType().getName() : null;
+			List<VisitSummary> shown = recentVisits.subList(0, Math.min(window, recentVisits.size()));
+			List<VisitDetails> visits = new ArrayList<>(shown.stream().map(VisitDetails::new).toList());
+			Collections.reverse(visits);
+			this.visits = Collections.unmodifiableList(visits);
+			this.olderVisits = (recentVisits.size() > shown.size() && !shown.isEmpty())
+					? VisitHistoryCursor.before(shown.get(shown.size() - 1)).encode() : null;
+		}
+
+		public Integer getId() {
+			return this.id;
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+		public LocalDate getBirthDate() {
+			return this.birthDate;
+		}
+
+		public String getType() {
+			return this.type;
+		}
+
+		public List<VisitDetails> getVisits() {
+			return this.visits;
+		}
+
+		/**
+		 * Return the cursor of the visits older than the ones shown.
+		 * @return the cursor, or {@literal null} if all the visits are shown
+		 */
+		public String getOlderVisits() {
+			return this.olderVisits;
+		}
+
+	}
+
+	/**
+	 * A past visit of a pet.
+	 */
+	public static final class VisitDetails {
+
+		private final LocalDate date;
+
+		private final String description;
+
+		private VisitDetails(VisitSummary visit) {
+			this.date = visit.getDate();
+			this.description = visit.getDescription();
+		}
+
+		public LocalDate getDate() {
+			return this.date;
+		}
+
+		public String getDescription() {
+			return this.description;
+		}
+
+	}
+
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Request scoped loader for {@link Owner} aggregates. The {@code @ModelAttribute} methods
+ * of the owner, pet and visit controllers each load the owner of the request, often
+ * several times for a single request; this loader memoizes the loads so that the
+ * {@link OwnerRepository} is queried at most once per owner and fetch plan.
+ * <p>
+ * An owner loaded with a richer fetch plan also serves the poorer ones, so an owner
+ * loaded with its pets is reused when only the owner itself is asked for. Loads are
+ * counted in the {@code petclinic.owner.loads} meter, tagged with {@code result=hit} for
+ * the repository calls avoided and {@code result=miss} for the ones made.
+ * <p>
+ * The owner details page only shows the most recent visits of each pet, as many as the
+ * {@code petclinic.visits.window} property (5 by default).
+ *
+ * @see OwnerRepository#findSummaryById(Integer)
+ * @see OwnerRepository#findById(Integer)
+ * @see VisitRepository#findRecentByPetId(Integer, Limit)
+ */
+@Component
+@RequestScope
+class OwnerLoader {
+
+	private final OwnerRepository owners;
+
+	private final VisitRepository visits;
+
+	private final int visitWindow;
+
+	private final Counter hits;
+
+	private final Counter misses;
+
+	private final Map<Integer, Loaded> loaded = new HashMap<>();
+
+	OwnerLoader(OwnerRepository owners, VisitRepository visits, MeterRegistry registry,
+			@Value("${petclinic.visits.window:5}") int visitWindow) {
+		this.owners = owners;
+		this.visits = visits;
+		this.visitWindow = Math.max(1, visitWindow);
+		this.hits = counter(registry, "hit");
+		this.misses = counter(registry, "miss");
+	}
+
+	private static Counter counter(MeterRegistry registry, String result) {
+		return Counter.builder("petclinic.owner.loads")
+			.description("Owner aggregate loads within a request")
+			.tag("result", result)
+			.register(registry);
+	}
+
+	/**
+	 * Load an {@link Owner} without its pets.
+	 * @param id the id of the owner
+	 * @return the {@link Owner}, or {@literal null} if not found
+	 */
+	Owner findSummaryById(int id) {
+		return load(id, FetchPlan.SUMMARY);
+	}
+
+	/**
+	 * Load an {@link Owner} with its pets and their types but without visits.
+	 * @param id the id of the owner
+	 * @return the {@link Owner}, or {@literal null} if not found
+	 */
+	Owner findById(int id) {
+		return load(id, FetchPlan.PETS);
+	}
+
+	/**
+	 * Load the read model of the owner details page: an {@link Owner} with its pets and
+	 * their types, and the most recent visits of each pet. Each pet costs a single seek
+	 * reading one visit more than the window, to tell whether it has older visits, so the
+	 * page costs the same whatever the history of the pets.
+	 * @param id the id of the owner
+	 * @return the owner details, or {@literal null} if not found
+	 */
+	OwnerDetails findRecentDetailsById(int id) {
+		Owner owner = findById(id);
+		if (owner == null) {
+			return null;
+		}
+		Map<Integer, List<VisitSummary>> recentVisits = new HashMap<>();
+		for (Pet pet : owner.getPets()) {
+			recentVisits.put(pet.getId(), this.visits.findRecentByPetId(pet.getId(), Limit.of(this.visitWindow + 1)));
+		}
+		return OwnerDetails.of(owner, recentVisits, this.visitWindow);
+	}
+
+	private Owner load(int id, FetchPlan plan) {
+		Loaded previous = this.loaded.get(id);
+		if (previous != null && previous.plan().compareTo(plan) >= 0) {
+			this.hits.increment();
+			return previous.owner();
+		}
+		this.misses.increment();
+		Owner owner = switch (plan) {
+			case SUMMARY -> this.owners.findSummaryById(id);
+			case PETS -> this.owners.findById(id);
+		};
+		if (owner != null) {
+			this.loaded.put(id, new Loaded(owner, plan));
+		}
+		return owner;
+	}
+
+	/**
+	 * Fetch plans of the {@link Owner} aggregate, from the poorest to the richest.
+	 */
+	private enum FetchPlan {
+
+		SUMMARY, PETS
+
+	}
+
+	private record Loaded(Owner owner, FetchPlan plan) {
+	}
+
+}
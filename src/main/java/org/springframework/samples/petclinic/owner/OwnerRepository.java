@@ -17,8 +17,11 @@ package org.springframework.samples.petclinic.owner;
 
 import java.util.List;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.Repository;
 import org.springframework.data.repository.query.Param;
@@ -37,6 +40,14 @@ import org.springframework.transaction.annotation.Transactional;
  */
 public interface OwnerRepository extends Repository<Owner, Integer> {
 
+	String SUMMARY_SELECT = "SELECT owner.id AS id, owner.firstName AS firstName, owner.lastName AS lastName, "
+			+ "owner.address AS address, owner.city AS city, owner.telephone AS telephone, "
+			+ "listagg(pet.name, ', ') WITHIN GROUP (ORDER BY pet.name) AS petNames "
+			+ "FROM Owner owner LEFT JOIN owner.pets pet ";
+
+	String SUMMARY_GROUP_BY = "GROUP BY owner.id, owner.firstName, owner.lastName, owner.address, owner.city, "
+			+ "owner.telephone ";
+
 	/**
 	 * Retrieve all {@link PetType}s from the data store.
 	 * @return a Collection of {@link PetType}s.
@@ -53,29 +64,106 @@ public interface OwnerRepository extends Repository<Owner, Integer> {
 	 * found)
 	 */
 
-	@Query("SELECT DISTINCT owner FROM Owner owner left join  owner.pets WHERE owner.lastName LIKE :lastName% ")
+	@Query("SELECT owner FROM Owner owner WHERE owner.lastName LIKE :lastName% ")
+	@EntityGraph(Owner.SUMMARY_GRAPH)
 	@Transactional(readOnly = true)
 	Page<Owner> findByLastName(@Param("lastName") String lastName, Pageable pageable);
 
 	/**
-	 * Retrieve an {@link Owner} from the data store by id.
+	 * Retrieve {@link OwnerSummary owner summaries} by last name, returning all owners
+	 * whose last name <i>starts</i> with the given name, ordered by last name and id. The
+	 * pet names are aggregated by the database, so each page is loaded in a single query
+	 * whatever the number of pets and visits.
+	 * @param lastName Value to search for
+	 * @param pageable the page to retrieve
+	 * @return a page of matching {@link OwnerSummary owner summaries}
+	 */
+	@Query(value = SUMMARY_SELECT + "WHERE owner.lastName LIKE :lastName% " + SUMMARY_GROUP_BY
+			+ "ORDER BY owner.lastName, owner.id",
+			countQuery = "SELECT count(owner) FROM Owner owner WHERE owner.lastName LIKE :lastName% ")
+	@Transactional(readOnly = true)
+	Page<OwnerSummary> findSummariesByLastName(@Param("lastName") String lastName, Pageable pageable);
+
+	/**
+	 * Retrieve {@link OwnerSummary owner summaries} by last name, ordered by last name
+	 * and id, starting right after the given {@code (lastName, id)} key. Seeking on the
+	 * key rather than skipping an offset keeps deep pages as cheap as the first one.
+	 * @param lastName Value to search for
+	 * @param afterLastName last name of the last owner already seen, empty to start
+	 * @param afterId id of the last owner already seen, {@literal 0} to start
+	 * @param limit maximum number of owners to return
+	 * @return the matching {@link OwnerSummary owner summaries}
+	 */
+	@Query(SUMMARY_SELECT + "WHERE owner.lastName LIKE :lastName% "
+			+ "AND (owner.lastName > :afterLastName OR (owner.lastName = :afterLastName AND owner.id > :afterId)) "
+			+ SUMMARY_GROUP_BY + "ORDER BY owner.lastName, owner.id")
+	@Transactional(readOnly = true)
+	List<OwnerSummary> findSummariesByLastNameAfter(@Param("lastName") String lastName,
+			@Param("afterLastName") String afterLastName, @Param("afterId") Integer afterId, Limit limit);
+
+	/**
+	 * Count the {@link Owner}s whose last name <i>starts</i> with the given name.
+	 * @param lastName Value to search for
+	 * @return the number of matching {@link Owner}s
+	 */
+	@Transactional(readOnly = true)
+	long countByLastNameStartingWith(String lastName);
+
+	/**
+	 * Retrieve an {@link Owner} from the data store by id, with its pets and their types
+	 * but without visits.
 	 * @param id the id to search for
 	 * @return the {@link Owner} if found
 	 */
-	@Query("SELECT owner FROM Owner owner left join fetch owner.pets WHERE owner.id =:id")
+	@Query("SELECT owner FROM Owner owner WHERE owner.id =:id")
+	@EntityGraph(Owner.PETS_GRAPH)
 	@Transactional(readOnly = true)
 	Owner findById(@Param("id") Integer id);
 
+	/**
+	 * Retrieve an {@link Owner} from the data store by id, without its pets.
+	 * @param id the id to search for
+	 * @return the {@link Owner} if found
+	 */
+	@Query("SELECT owner FROM Owner owner WHERE owner.id =:id")
+	@EntityGraph(Owner.SUMMARY_GRAPH)
+	@Transactional(readOnly = true)
+	Owner findSummaryById(@Param("id") Integer id);
+
+	/**
+	 * Increment the version of an {@link Owner} whose pets or visits changed, as writing
+	 * them leaves the owner row itself untouched.
+	 * @param id the id of the owner
+	 * @return the number of owners updated
+	 */
+	@Modifying
+	@Query("UPDATE Owner owner SET owner.version = owner.version + 1 WHERE owner.id = :id")
+	@Transactional
+	int incrementVersion(@Param("id") Integer id);
+
 	/**
 	 * Save an {@link Owner} to the data store, either inserting or updating it.
 	 * @param owner the {@link Owner} to save
 	 */
 	void save(Owner owner);
 
+	/**
+	 * Save an {@link Owner} whose pets were added or edited, and increment its version in
+	 * the same transaction, so that the pets are never written without the owner version
+	 * changing.
+	 * @param owner the {@link Owner} to save
+	 */
+	@Transactional
+	default void savePets(Owner owner) {
+		save(owner);
+		incrementVersion(owner.getId());
+	}
+
 	/**
 	 * Returns all the owners from data store
 	 **/
 	@Query("SELECT owner FROM Owner owner")
+	@EntityGraph(Owner.SUMMARY_GRAPH)
 	@Transactional(readOnly = true)
 	Page<Owner> findAll(Pageable pageable);
 
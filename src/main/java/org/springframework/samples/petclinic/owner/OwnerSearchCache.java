@@ -0,0 +1,104 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cache of the owner search results, keyed by the searched last name prefix and the page.
+ * Most searches are for a handful of prefixes, often empty, and their first page, so they
+ * are answered without running the search and its count query again.
+ * <p>
+ * Saving an owner, or its pets, must evict the searches whose prefix the last name of the
+ * owner starts with, once saved. Other searches are kept. A search running concurrently
+ * with the save may still cache the results preceding it, until they expire, after 5
+ * minutes as configured. Prefixes are compared ignoring case, as the database may do, so
+ * a search is evicted rather than left stale whatever the collation. The results live in
+ * the {@code owner-searches} cache, whose hits and misses are published with the other
+ * caches.
+ */
+@Component
+public class OwnerSearchCache {
+
+	static final String CACHE_NAME = "owner-searches";
+
+	private final OwnerRepository owners;
+
+	private final Cache cache;
+
+	OwnerSearchCache(OwnerRepository owners, CacheManager cacheManager) {
+		this.owners = owners;
+		this.cache = Objects.requireNonNull(cacheManager.getCache(CACHE_NAME), "No cache named " + CACHE_NAME);
+	}
+
+	/**
+	 * Find the {@link OwnerSummary owner summaries} whose last name starts with the given
+	 * prefix, stripped of surrounding whitespace.
+	 * @param lastName the last name prefix
+	 * @param pageable the page to retrieve
+	 * @return a page of matching {@link OwnerSummary owner summaries}
+	 * @see OwnerRepository#findSummariesByLastName
+	 */
+	Page<OwnerSummary> findSummariesByLastName(String lastName, Pageable pageable) {
+		String prefix = normalize(lastName);
+		if (prefix.indexOf('%') >= 0 || prefix.indexOf('_') >= 0) {
+			// wildcards would match more last names than the prefix tells
+			return this.owners.findSummariesByLastName(prefix, pageable);
+		}
+		SearchKey key = new SearchKey(prefix, pageable.getPageNumber(), pageable.getPageSize());
+		return this.cache.get(key, () -> this.owners.findSummariesByLastName(prefix, pageable));
+	}
+
+	/**
+	 * Evict the searches that may hold owners with any of the given last names.
+	 * @param lastNames the last names of the owners saved
+	 */
+	public void evict(String... lastNames) {
+		if (!(this.cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> entries)) {
+			// the searches cannot be told apart, evict them all
+			this.cache.clear();
+			return;
+		}
+		List<String> names = Arrays.stream(lastNames)
+			.filter(Objects::nonNull)
+			.map(OwnerSearchCache::normalize)
+			.toList();
+		entries.asMap()
+			.keySet()
+			.removeIf(key -> key instanceof SearchKey search && names.stream().anyMatch(search::matches));
+	}
+
+	private static String normalize(String lastName) {
+		return (lastName != null) ? lastName.strip() : "";
+	}
+
+	private record SearchKey(String prefix, int page, int size) {
+
+		boolean matches(String lastName) {
+			return lastName.regionMatches(true, 0, this.prefix, 0, this.prefix.length());
+		}
+
+	}
+
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.springframework.util.StringUtils;
+
+/**
+ * Opaque continuation token for the keyset-paginated owner search. It records the
+ * {@code (lastName, id)} key of the last owner shown, so the next page can seek past it
+ * through the {@code owners_last_name} index instead of skipping rows with an offset,
+ * together with the total counted on the first page so later pages can show an
+ * approximate total without counting again.
+ *
+ * @see OwnerController#processFindFormByCursor
+ */
+final class OwnerSearchCursor {
+
+	private static final OwnerSearchCursor FIRST = new OwnerSearchCursor("", 0, -1);
+
+	private final String lastName;
+
+	private final Integer id;
+
+	private final long total;
+
+	private OwnerSearchCursor(String lastName, Integer id, long total) {
+		this.lastName = lastName;
+		this.id = id;
+		this.total = total;
+	}
+
+	static OwnerSearchCursor first() {
+		return FIRST;
+	}
+
+	static OwnerSearchCursor after(OwnerSummary owner, long total) {
+		return new OwnerSearchCursor(owner.getLastName(), owner.getId(), total);
+	}
+
+	/**
+	 * Decode a token produced by {@link #encode()}. Blank or malformed tokens start the
+	 * search from the beginning.
+	 * @param token the token from the request, may be {@literal null}
+	 * @return the decoded cursor
+	 */
+	static OwnerSearchCursor decode(String token) {
+		if (!StringUtils.hasText(token)) {
+			return FIRST;
+		}
+		try {
+			String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+			String[] parts = decoded.split(":", 3);
+			if (parts.length != 3) {
+				return FIRST;
+			}
+			return new OwnerSearchCursor(parts[2], Integer.valueOf(parts[0]), Long.parseLong(parts[1]));
+		}
+		catch (IllegalArgumentException ex) {
+			return FIRST;
+		}
+	}
+
+	String encode() {
+		String value = this.id + ":" + this.total + ":" + this.lastName;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+	}
+
+	boolean isFirst() {
+		return this == FIRST;
+	}
+
+	/**
+	 * Return the last name of the last owner shown, or an empty string on the first page,
+	 * which sorts before every last name.
+	 */
+	String getLastName() {
+		return this.lastName;
+	}
+
+	/**
+	 * Return the id of the last owner shown, or {@literal 0} on the first page.
+	 */
+	Integer getId() {
+		return this.id;
+	}
+
+	long getTotal() {
+		return this.total;
+	}
+
+}
@@ -46,19 +46,29 @@ class PetController {
 
 	private final OwnerRepository owners;
 
-	public PetController(OwnerRepository owners) {
+	private final OwnerLoader ownerLoader;
+
+	private final PetTypeRegistry petTypes;
+
+	private final OwnerSearchCache ownerSearches;
+
+	public PetController(OwnerRepository owners, OwnerLoader ownerLoader, PetTypeRegistry petTypes,
+			OwnerSearchCache ownerSearches) {
 		this.owners = owners;
+		this.ownerLoader = ownerLoader;
+		this.petTypes = petTypes;
+		this.ownerSearches = ownerSearches;
 	}
 
 	@ModelAttribute("types")
 	public Collection<PetType> populatePetTypes() {
-		return this.owners.findPetTypes();
+		return this.petTypes.getPetTypes();
 	}
 
 	@ModelAttribute("owner")
 	public Owner findOwner(@PathVariable("ownerId") int ownerId) {
 
-		Owner owner = this.owners.findById(ownerId);
+		Owner owner = this.ownerLoader.findById(ownerId);
 		if (owner == null) {
 			throw new IllegalArgumentException("Owner ID not found: " + ownerId);
 		}
@@ -73,7 +83,7 @@ class PetController {
 			return new Pet();
 		}
 
-		Owner owner = this.owners.findById(ownerId);
+		Owner owner = this.ownerLoader.findById(ownerId);
 		if (owner == null) {
 			throw new IllegalArgumentException("Owner ID not found: " + ownerId);
 		}
@@ -116,7 +126,8 @@ class PetController {
 			return VIEWS_PETS_CREATE_OR_UPDATE_FORM;
 		}
 
-		this.owners.save(owner);
+		this.owners.savePets(owner);
+		this.ownerSearches.evict(owner.getLastName());
 		redirectAttributes.addFlashAttribute("message", "New Pet has been Added");
 		return "redirect:/owners/{ownerId}";
 	}
@@ -154,7 +165,8 @@ class PetController {
 		}
 
 		owner.addPet(pet);
-		this.owners.save(owner);
+		this.owners.savePets(owner);
+		this.ownerSearches.evict(owner.getLastName());
 		redirectAttributes.addFlashAttribute("message", "Pet details has been edited");
 		return "redirect:/owners/{ownerId}";
 	}
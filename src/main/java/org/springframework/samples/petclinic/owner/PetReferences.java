@@ -0,0 +1,33 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+/**
+ * Repository fragment handing out references to {@link Pet}s, so that entities can be
+ * associated with a pet known by id without loading it.
+ *
+ * @see VisitRepository#addVisit(Integer, Integer, Visit)
+ */
+public interface PetReferences {
+
+	/**
+	 * Return a reference to a {@link Pet}, whose state is only loaded when accessed.
+	 * @param petId the id of the pet
+	 * @return the reference to the {@link Pet}
+	 */
+	Pet getPetReference(Integer petId);
+
+}
@@ -15,8 +15,12 @@
  */
 package org.springframework.samples.petclinic.owner;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Immutable;
 import org.springframework.samples.petclinic.model.NamedEntity;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Table;
 
@@ -24,6 +28,9 @@ import jakarta.persistence.Table;
  * @author Juergen Hoeller Can be Cat, Dog, Hamster...
  */
 @Entity
+@Immutable
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = "pet-types")
 @Table(name = "types")
 public class PetType extends NamedEntity {
 
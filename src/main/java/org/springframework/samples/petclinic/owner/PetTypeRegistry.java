@@ -0,0 +1,140 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Immutable in-memory snapshot of the {@link PetType}s, looked up by name and by id in
+ * constant time. Pet types are reference data that only change through administration, so
+ * the pet forms read them from here rather than querying them on every request and every
+ * bind.
+ * <p>
+ * The snapshot is loaded on first use and reloaded once it is older than the
+ * {@code petclinic.pet-types.ttl} property (10 minutes by default, a zero or negative
+ * duration never expires it), or on the next use after {@link #invalidate()}, which must
+ * be called whenever pet types are written.
+ *
+ * @see PetTypeFormatter
+ * @see PetController#populatePetTypes()
+ */
+@Component
+public class PetTypeRegistry {
+
+	private final OwnerRepository owners;
+
+	private final long ttlNanos;
+
+	// a lock rather than synchronized, which would pin virtual threads during the query
+	private final Lock reloadLock = new ReentrantLock();
+
+	private volatile Snapshot snapshot;
+
+	public PetTypeRegistry(OwnerRepository owners, @Value("${petclinic.pet-types.ttl:10m}") Duration ttl) {
+		this.owners = owners;
+		this.ttlNanos = ttl.toNanos();
+	}
+
+	/**
+	 * Return all the {@link PetType}s, ordered by name.
+	 * @return an unmodifiable list of the {@link PetType}s
+	 */
+	public List<PetType> getPetTypes() {
+		return snapshot().petTypes();
+	}
+
+	/**
+	 * Return the {@link PetType} with the given name.
+	 * @param name the exact name of the pet type
+	 * @return the {@link PetType}, or {@literal null} if none has that name
+	 */
+	public PetType findByName(String name) {
+		return snapshot().byName().get(name);
+	}
+
+	/**
+	 * Return the {@link PetType} with the given id.
+	 * @param id the id of the pet type
+	 * @return the {@link PetType}, or {@literal null} if none has that id
+	 */
+	public PetType findById(Integer id) {
+		return snapshot().byId().get(id);
+	}
+
+	/**
+	 * Discard the current snapshot so the {@link PetType}s are reloaded on next use.
+	 */
+	public void invalidate() {
+		this.snapshot = null;
+	}
+
+	private Snapshot snapshot() {
+		Snapshot current = this.snapshot;
+		if (current == null || current.isExpired(this.ttlNanos)) {
+			current = reload(current);
+		}
+		return current;
+	}
+
+	private Snapshot reload(Snapshot stale) {
+		this.reloadLock.lock();
+		try {
+			Snapshot current = this.snapshot;
+			if (current != null && current != stale) {
+				// reloaded by another thread meanwhile
+				return current;
+			}
+			current = Snapshot.of(this.owners.findPetTypes());
+			this.snapshot = current;
+			return current;
+		}
+		finally {
+			this.reloadLock.unlock();
+		}
+	}
+
+	private record Snapshot(List<PetType> petTypes, Map<String, PetType> byName, Map<Integer, PetType> byId,
+			long loadedAt) {
+
+		static Snapshot of(List<PetType> petTypes) {
+			Map<String, PetType> byName = new HashMap<>();
+			Map<Integer, PetType> byId = new HashMap<>();
+			for (PetType petType : petTypes) {
+				byName.put(petType.getName(), petType);
+				if (petType.getId() != null) {
+					byId.put(petType.getId(), petType);
+				}
+			}
+			return new Snapshot(List.copyOf(petTypes), Collections.unmodifiableMap(byName),
+					Collections.unmodifiableMap(byId), System.nanoTime());
+		}
+
+		boolean isExpired(long ttlNanos) {
+			return ttlNanos > 0 && System.nanoTime() - this.loadedAt >= ttlNanos;
+		}
+
+	}
+
+}
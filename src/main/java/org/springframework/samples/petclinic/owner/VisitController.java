@@ -15,16 +15,20 @@
  */
 package org.springframework.samples.petclinic.owner;
 
+import java.util.List;
 import java.util.Map;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.WebDataBinder;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.InitBinder;
-import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import jakarta.validation.Valid;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
@@ -39,10 +43,17 @@ import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 @Controller
 class VisitController {
 
-	private final OwnerRepository owners;
+	private final VisitRepository visits;
 
-	public VisitController(OwnerRepository owners) {
-		this.owners = owners;
+	private final OwnerLoader ownerLoader;
+
+	private final int visitWindow;
+
+	public VisitController(VisitRepository visits, OwnerLoader ownerLoader,
+			@Value("${petclinic.visits.window:5}") int visitWindow) {
+		this.visits = visits;
+		this.ownerLoader = ownerLoader;
+		this.visitWindow = Math.max(1, visitWindow);
 	}
 
 	@InitBinder
@@ -50,47 +61,81 @@ class VisitController {
 		dataBinder.setDisallowedFields("id");
 	}
 
-	/**
-	 * Called before each and every @RequestMapping annotated method. 2 goals: - Make sure
-	 * we always have fresh data - Since we do not use the session scope, make sure that
-	 * Pet object always has an id (Even though id is not part of the form fields)
-	 * @param petId
-	 * @return Pet
-	 */
-	@ModelAttribute("visit")
-	public Visit loadPetWithVisit(@PathVariable("ownerId") int ownerId, @PathVariable("petId") int petId,
-			Map<String, Object> model) {
-		Owner owner = this.owners.findById(ownerId);
-
-		Pet pet = owner.getPet(petId);
-		model.put("pet", pet);
-		model.put("owner", owner);
-
-		Visit visit = new Visit();
-		pet.addVisit(visit);
-		return visit;
-	}
-
-	// Spring MVC calls method loadPetWithVisit(...) before initNewVisitForm is
-	// called
 	@GetMapping("/owners/{ownerId}/pets/{petId}/visits/new")
-	public String initNewVisitForm() {
-		return "pets/createOrUpdateVisitForm";
+	public String initNewVisitForm(@PathVariable("ownerId") int ownerId, @PathVariable("petId") int petId,
+			Map<String, Object> model) {
+		model.put("visit", new Visit());
+		return populateVisitForm(ownerId, petId, model);
 	}
 
-	// Spring MVC calls method loadPetWithVisit(...) before processNewVisitForm is
-	// called
 	@PostMapping("/owners/{ownerId}/pets/{petId}/visits/new")
-	public String processNewVisitForm(@ModelAttribute Owner owner, @PathVariable int petId, @Valid Visit visit,
-			BindingResult result, RedirectAttributes redirectAttributes) {
+	public String processNewVisitForm(@PathVariable("ownerId") int ownerId, @PathVariable("petId") int petId,
+			@Valid Visit visit, BindingResult result, Map<String, Object> model,
+			RedirectAttributes redirectAttributes) {
 		if (result.hasErrors()) {
-			return "pets/createOrUpdateVisitForm";
+			return populateVisitForm(ownerId, petId, model);
 		}
 
-		owner.addVisit(petId, visit);
-		this.owners.save(owner);
+		if (this.visits.addVisit(ownerId, petId, visit) == 0) {
+			throw new IllegalArgumentException("Pet ID not found for owner " + ownerId + ": " + petId);
+		}
 		redirectAttributes.addFlashAttribute("message", "Your visit has been booked");
 		return "redirect:/owners/{ownerId}";
 	}
 
+	/**
+	 * Show the visit history of a pet, most recent first, one window of visits at a time.
+	 * Each window seeks past the oldest visit of the previous one, so it costs the same
+	 * whatever the length of the history.
+	 * @param ownerId the id of the owner
+	 * @param petId the id of the pet
+	 * @param before the cursor of the previous window, none for the most recent visits
+	 * @param model the model of the view
+	 * @return the view of the history
+	 */
+	@GetMapping("/owners/{ownerId}/pets/{petId}/visits")
+	public String showVisitHistory(@PathVariable("ownerId") int ownerId, @PathVariable("petId") int petId,
+			@RequestParam(name = "before", required = false) String before, Model model) {
+		Owner owner = this.ownerLoader.findById(ownerId);
+		Pet pet = (owner != null) ? owner.getPet(petId) : null;
+		if (pet == null) {
+			throw new IllegalArgumentException("Pet ID not found for owner " + ownerId + ": " + petId);
+		}
+
+		VisitHistoryCursor cursor = VisitHistoryCursor.decode(before);
+		// fetch one extra visit to find out whether there are older ones
+		Limit limit = Limit.of(this.visitWindow + 1);
+		List<VisitSummary> visits = (cursor != null)
+				? this.visits.findOlderByPetId(petId, cursor.getDate(), cursor.getId(), limit)
+				: this.visits.findRecentByPetId(petId, limit);
+		boolean hasOlder = visits.size() > this.visitWindow;
+		List<VisitSummary> shown = hasOlder ? visits.subList(0, this.visitWindow) : visits;
+		model.addAttribute("owner", owner);
+		model.addAttribute("pet", pet);
+		model.addAttribute("visits", shown);
+		if (hasOlder) {
+			model.addAttribute("olderVisits", VisitHistoryCursor.before(shown.get(shown.size() - 1)).encode());
+		}
+		return "pets/visitHistory";
+	}
+
+	/**
+	 * Put the owner and the pet of the visit form in the model, with the most recent
+	 * visits of the pet. They are only loaded to render the form, booking a visit does
+	 * not need them.
+	 * @param ownerId the id of the owner
+	 * @param petId the id of the pet
+	 * @param model the model of the form
+	 * @return the view of the form
+	 */
+	private String populateVisitForm(int ownerId, int petId, Map<String, Object> model) {
+		OwnerDetails owner = this.ownerLoader.findRecentDetailsById(ownerId);
+		if (owner == null) {
+			throw new IllegalArgumentException("Owner ID not found: " + ownerId);
+		}
+		model.put("pet", owner.getPet(petId));
+		model.put("owner", owner);
+		return "pets/createOrUpdateVisitForm";
+	}
+
 }
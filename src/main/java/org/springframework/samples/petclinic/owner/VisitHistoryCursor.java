@@ -0,0 +1,89 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import org.springframework.util.StringUtils;
+
+/**
+ * Opaque continuation token for the visit history of a pet, most recent first. It records
+ * the {@code (date, id)} key of the oldest visit shown, so the next page can seek past it
+ * through the {@code (pet_id, visit_date)} index.
+ *
+ * @see VisitController#showVisitHistory
+ */
+final class VisitHistoryCursor {
+
+	private final LocalDate date;
+
+	private final Integer id;
+
+	private VisitHistoryCursor(LocalDate date, Integer id) {
+		this.date = date;
+		this.id = id;
+	}
+
+	static VisitHistoryCursor before(VisitSummary visit) {
+		return new VisitHistoryCursor(visit.getDate(), visit.getId());
+	}
+
+	/**
+	 * Decode a token produced by {@link #encode()}.
+	 * @param token the token from the request, may be {@literal null}
+	 * @return the decoded cursor, or {@literal null} for a blank or malformed token,
+	 * which starts the history from the most recent visit
+	 */
+	static VisitHistoryCursor decode(String token) {
+		if (!StringUtils.hasText(token)) {
+			return null;
+		}
+		try {
+			String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+			String[] parts = decoded.split(":", 2);
+			if (parts.length != 2) {
+				return null;
+			}
+			return new VisitHistoryCursor(LocalDate.parse(parts[1]), Integer.valueOf(parts[0]));
+		}
+		catch (IllegalArgumentException | DateTimeParseException ex) {
+			return null;
+		}
+	}
+
+	String encode() {
+		String value = this.id + ":" + this.date;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Return the date of the oldest visit shown.
+	 */
+	LocalDate getDate() {
+		return this.date;
+	}
+
+	/**
+	 * Return the id of the oldest visit shown.
+	 */
+	Integer getId() {
+		return this.id;
+	}
+
+}
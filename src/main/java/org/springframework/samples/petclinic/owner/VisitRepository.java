@@ -0,0 +1,113 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Repository class for <code>Visit</code> domain objects. Visits are only ever appended
+ * to the history of a pet, so they are written on their own rather than through the
+ * {@link Owner} aggregate, whose merge would cascade over every pet and visit of the
+ * owner.
+ */
+public interface VisitRepository extends Repository<Visit, Integer>, PetReferences {
+
+	/**
+	 * Check whether a pet belongs to the given owner.
+	 * @param ownerId the id of the owner
+	 * @param petId the id of the pet
+	 * @return {@literal true} if the owner has such a pet
+	 */
+	@Query("SELECT count(pet) > 0 FROM Owner owner JOIN owner.pets pet WHERE owner.id = :ownerId AND pet.id = :petId")
+	@Transactional(readOnly = true)
+	boolean isPetOfOwner(@Param("ownerId") Integer ownerId, @Param("petId") Integer petId);
+
+	/**
+	 * Retrieve the most recent visits of a pet, most recent first. At most {@code limit}
+	 * entries of the {@code (pet_id, visit_date)} index are read, so the cost does not
+	 * depend on the length of the history of the pet.
+	 * @param petId the id of the pet
+	 * @param limit maximum number of visits to return
+	 * @return the most recent visits
+	 */
+	@Query("SELECT visit.id AS id, visit.date AS date, visit.description AS description FROM Visit visit "
+			+ "WHERE visit.pet.id = :petId ORDER BY visit.date DESC, visit.id DESC")
+	@Transactional(readOnly = true)
+	List<VisitSummary> findRecentByPetId(@Param("petId") Integer petId, Limit limit);
+
+	/**
+	 * Retrieve the visits of a pet older than the given {@code (date, id)} key, most
+	 * recent first, seeking on the {@code (pet_id, visit_date)} index.
+	 * @param petId the id of the pet
+	 * @param beforeDate date of the oldest visit already shown
+	 * @param beforeId id of the oldest visit already shown
+	 * @param limit maximum number of visits to return
+	 * @return the older visits
+	 */
+	@Query("SELECT visit.id AS id, visit.date AS date, visit.description AS description FROM Visit visit "
+			+ "WHERE visit.pet.id = :petId "
+			+ "AND (visit.date < :beforeDate OR (visit.date = :beforeDate AND visit.id < :beforeId)) "
+			+ "ORDER BY visit.date DESC, visit.id DESC")
+	@Transactional(readOnly = true)
+	List<VisitSummary> findOlderByPetId(@Param("petId") Integer petId, @Param("beforeDate") LocalDate beforeDate,
+			@Param("beforeId") Integer beforeId, Limit limit);
+
+	/**
+	 * Increment the version of the {@link Owner} of a pet that was visited.
+	 * @param ownerId the id of the owner
+	 * @return the number of owners updated
+	 * @see OwnerRepository#incrementVersion(Integer)
+	 */
+	@Modifying
+	@Query("UPDATE Owner owner SET owner.version = owner.version + 1 WHERE owner.id = :ownerId")
+	int incrementOwnerVersion(@Param("ownerId") Integer ownerId);
+
+	/**
+	 * Save a {@link Visit} to the data store.
+	 * @param visit the {@link Visit} to save
+	 * @return the saved {@link Visit}
+	 */
+	Visit save(Visit visit);
+
+	/**
+	 * Insert a {@link Visit} for a pet, provided the pet belongs to the given owner.
+	 * Neither the owner nor the pet is loaded, so booking a visit costs the same whatever
+	 * the history of the owner; only the version of the owner is incremented.
+	 * @param ownerId the id of the owner of the pet
+	 * @param petId the id of the pet visited
+	 * @param visit the {@link Visit} to insert
+	 * @return the number of visits inserted, {@literal 0} if the owner has no such pet
+	 */
+	@Transactional
+	default int addVisit(Integer ownerId, Integer petId, Visit visit) {
+		if (!isPetOfOwner(ownerId, petId)) {
+			return 0;
+		}
+		visit.setPet(getPetReference(petId));
+		save(visit);
+		incrementOwnerVersion(ownerId);
+		return 1;
+	}
+
+}
@@ -13,41 +13,152 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-
 package org.springframework.samples.petclinic.system;
 
-import org.springframework.boot.autoconfigure.cache.JCacheManagerCustomizer;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.jcache.MissingCacheStrategy;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Slice;
 
-import javax.cache.configuration.MutableConfiguration;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
 
 /**
- * Cache configuration intended for caches providing the JCache API. This configuration
- * creates the used cache for the application and enables statistics that become
- * accessible via JMX.
+ * Cache configuration for the Caffeine cache manager. Every region declared in the
+ * {@code petclinic.cache.regions} properties becomes a cache of its own, bounded and
+ * expired as configured, so that for example the vet list and the pages of vets do not
+ * compete for the same entries.
+ * <p>
+ * Statistics are recorded for every region, so hits, misses, evictions and sizes are
+ * published per cache through the {@code cache.*} metrics and the {@code caches} actuator
+ * endpoint.
+ * <p>
+ * Hibernate's second-level cache, holding reference entities such as pet types, vets and
+ * their specialties, is backed by a JCache manager of Caffeine caches created from the
+ * {@code petclinic.cache.entity-regions} properties. A region missing from the properties
+ * fails the startup rather than growing unbounded. Hits and misses are published per
+ * region through the same {@code cache.*} metrics. The cache is on unless turned off with
+ * {@code spring.jpa.properties.hibernate.cache.use_second_level_cache=false}.
+ *
+ * @see CacheRegionProperties
  */
 @Configuration(proxyBeanMethods = false)
 @EnableCaching
+@EnableConfigurationProperties(CacheRegionProperties.class)
 class CacheConfiguration {
 
 	@Bean
-	public JCacheManagerCustomizer petclinicCacheConfigurationCustomizer() {
-		return cm -> cm.createCache("vets", cacheConfiguration());
+	public CacheManagerCustomizer<CaffeineCacheManager> petclinicCacheRegionsCustomizer(
+			CacheRegionProperties properties) {
+		return cacheManager -> properties.regions()
+			.forEach((name, region) -> cacheManager.registerCustomCache(name, caffeine(region).build()));
+	}
+
+	/**
+	 * JCache manager of the second-level cache regions. Each application context gets a
+	 * manager of its own, as the caching provider otherwise hands out a single manager
+	 * per class loader.
+	 */
+	@Bean(destroyMethod = "close")
+	public javax.cache.CacheManager secondLevelCacheManager(CacheRegionProperties properties) {
+		CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+		javax.cache.CacheManager cacheManager = provider.getCacheManager(URI.create("petclinic-" + UUID.randomUUID()),
+				provider.getDefaultClassLoader());
+		properties.entityRegions().forEach((name, region) -> cacheManager.createCache(name, jcache(region)));
+		return cacheManager;
+	}
+
+	@Bean
+	public HibernatePropertiesCustomizer secondLevelCacheCustomizer(javax.cache.CacheManager secondLevelCacheManager) {
+		return hibernateProperties -> {
+			hibernateProperties.putIfAbsent(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+			hibernateProperties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+			hibernateProperties.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+			hibernateProperties.put(ConfigSettings.MISSING_CACHE_STRATEGY,
+					MissingCacheStrategy.FAIL.getExternalRepresentation());
+		};
+	}
+
+	@Bean
+	public MeterBinder secondLevelCacheMetrics(javax.cache.CacheManager secondLevelCacheManager) {
+		return registry -> secondLevelCacheManager.getCacheNames()
+			.forEach(name -> JCacheMetrics.monitor(registry, secondLevelCacheManager.getCache(name), "cache.manager",
+					"secondLevelCacheManager"));
+	}
+
+	/**
+	 * Caffeine configuration of a second-level cache region. Hibernate caches its own
+	 * copies of the entity state, so entries are stored by reference.
+	 */
+	private static CaffeineConfiguration<Object, Object> jcache(CacheRegionProperties.Region region) {
+		CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+		configuration.setStoreByValue(false);
+		configuration.setStatisticsEnabled(true);
+		if (region.maximumSize() != null) {
+			configuration.setMaximumSize(OptionalLong.of(region.maximumSize()));
+		}
+		if (region.expireAfterWrite() != null) {
+			configuration.setExpireAfterWrite(nanos(region.expireAfterWrite()));
+		}
+		if (region.expireAfterAccess() != null) {
+			configuration.setExpireAfterAccess(nanos(region.expireAfterAccess()));
+		}
+		return configuration;
+	}
+
+	private static OptionalLong nanos(Duration duration) {
+		return OptionalLong.of(duration.toNanos());
+	}
+
+	private static Caffeine<Object, Object> caffeine(CacheRegionProperties.Region region) {
+		Caffeine<Object, Object> caffeine = Caffeine.newBuilder().recordStats();
+		if (region.maximumSize() != null) {
+			caffeine.maximumSize(region.maximumSize());
+		}
+		if (region.maximumWeight() != null) {
+			caffeine.maximumWeight(region.maximumWeight()).weigher((key, value) -> weight(value));
+		}
+		if (region.expireAfterWrite() != null) {
+			caffeine.expireAfterWrite(region.expireAfterWrite());
+		}
+		if (region.expireAfterAccess() != null) {
+			caffeine.expireAfterAccess(region.expireAfterAccess());
+		}
+		return caffeine;
 	}
 
 	/**
-	 * Create a simple configuration that enable statistics via the JCache programmatic
-	 * configuration API.
-	 * <p>
-	 * Within the configuration object that is provided by the JCache API standard, there
-	 * is only a very limited set of configuration options. The really relevant
-	 * configuration options (like the size limit) must be set via a configuration
-	 * mechanism that is provided by the selected JCache implementation.
+	 * Weigh a cached value by the number of elements it holds, so that a region bounded
+	 * by weight holds about the same memory whatever the page size.
 	 */
-	private javax.cache.configuration.Configuration<Object, Object> cacheConfiguration() {
-		return new MutableConfiguration<>().setStatisticsEnabled(true);
+	private static int weight(Object value) {
+		if (value instanceof Collection<?> collection) {
+			return Math.max(1, collection.size());
+		}
+		if (value instanceof Slice<?> slice) {
+			return Math.max(1, slice.getNumberOfElements());
+		}
+		return 1;
 	}
 
 }
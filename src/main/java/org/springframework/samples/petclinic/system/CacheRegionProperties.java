@@ -0,0 +1,66 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.system;
+
+import java.time.Duration;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Tuning of the application cache regions, bound from the {@code petclinic.cache}
+ * properties. Each region is a cache of its own, sized and expired independently, e.g.
+ *
+ * <pre class="code">
+ * petclinic.cache.regions.vets.maximum-size=1
+ * petclinic.cache.regions.vets.expire-after-write=10m
+ * </pre>
+ *
+ * Caches without a region fall back to {@code spring.cache.caffeine.spec}.
+ * <p>
+ * The regions of Hibernate's second-level cache are tuned the same way under
+ * {@code petclinic.cache.entity-regions}, and must all be listed, e.g.
+ *
+ * <pre class="code">
+ * petclinic.cache.entity-regions.pet-types.maximum-size=100
+ * </pre>
+ *
+ * @param regions the cache regions, by cache name
+ * @param entityRegions the second-level cache regions, by region name; only
+ * {@code maximumSize}, {@code expireAfterWrite} and {@code expireAfterAccess} apply
+ */
+@ConfigurationProperties("petclinic.cache")
+record CacheRegionProperties(Map<String, Region> regions, Map<String, Region> entityRegions) {
+
+	CacheRegionProperties {
+		regions = (regions != null) ? regions : Map.of();
+		entityRegions = (entityRegions != null) ? entityRegions : Map.of();
+	}
+
+	/**
+	 * Bounds and expiry of a single cache region. Unset values are not applied.
+	 *
+	 * @param maximumSize maximum number of entries
+	 * @param maximumWeight maximum number of cached elements, a collection or page
+	 * weighing as many elements as it holds; exclusive with {@code maximumSize}
+	 * @param expireAfterWrite time after which an entry is evicted once written
+	 * @param expireAfterAccess time after which an entry is evicted once last read
+	 */
+	record Region(Long maximumSize, Long maximumWeight, Duration expireAfterWrite, Duration expireAfterAccess) {
+
+	}
+
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.system;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.sql.init.SqlDataSourceScriptDatabaseInitializer;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Read/write splitting of the datasource, enabled by declaring at least one replica in
+ * the {@code petclinic.datasource.replicas} properties. Read-only transactions, such as
+ * the {@code @Transactional(readOnly = true)} repository methods, run on the replicas and
+ * everything else on the primary.
+ * <p>
+ * The datasource is a lazy proxy, which only fetches a connection on the first statement
+ * of a transaction, once the transaction has told whether it is read-only. Replicas that
+ * are embedded databases, typically a second H2 database standing in for a replica in
+ * development, are initialized with the same scripts as the primary.
+ *
+ * @see DataSourceRoutingProperties
+ * @see ReadYourWritesFilter
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty("petclinic.datasource.replicas[0].url")
+@EnableConfigurationProperties(DataSourceRoutingProperties.class)
+class DataSourceRoutingConfiguration {
+
+	@Bean
+	@ConfigurationProperties("spring.datasource.hikari")
+	HikariDataSource primaryDataSource(DataSourceProperties properties) {
+		return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+	}
+
+	@Bean
+	ReplicaDataSource replicaDataSource(DataSourceRoutingProperties routing, DataSourceProperties properties,
+			HikariDataSource primaryDataSource, ObjectProvider<SqlInitializationProperties> initialization) {
+		List<HikariDataSource> replicas = new ArrayList<>();
+		for (DataSourceRoutingProperties.Replica replica : routing.replicas()) {
+			HikariDataSource dataSource = DataSourceBuilder.create()
+				.type(HikariDataSource.class)
+				.url(replica.url())
+				.username(StringUtils.hasText(replica.username()) ? replica.username() : properties.determineUsername())
+				.password((replica.password() != null) ? replica.password() : properties.determinePassword())
+				.build();
+			dataSource.setPoolName("replica-" + replicas.size());
+			if (primaryDataSource.getMaximumPoolSize() > 0) {
+				dataSource.setMaximumPoolSize(primaryDataSource.getMaximumPoolSize());
+			}
+			initialization.ifAvailable(
+					(init) -> new SqlDataSourceScriptDatabaseInitializer(dataSource, init).initializeDatabase());
+			replicas.add(dataSource);
+		}
+		return new ReplicaDataSource(primaryDataSource, replicas);
+	}
+
+	@Bean
+	@Primary
+	LazyConnectionDataSourceProxy dataSource(HikariDataSource primaryDataSource, ReplicaDataSource replicaDataSource) {
+		LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+		dataSource.setReadOnlyDataSource(replicaDataSource);
+		return dataSource;
+	}
+
+	@Bean
+	ReadYourWritesFilter readYourWritesFilter(DataSourceRoutingProperties routing) {
+		return new ReadYourWritesFilter(routing.readYourWrites());
+	}
+
+}
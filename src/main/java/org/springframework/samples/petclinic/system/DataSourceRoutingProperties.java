@@ -0,0 +1,57 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.system;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Read replicas of the primary datasource, bound from the {@code petclinic.datasource}
+ * properties, e.g.
+ *
+ * <pre class="code">
+ * petclinic.datasource.replicas[0].url=jdbc:postgresql://replica-1/petclinic
+ * petclinic.datasource.replicas[1].url=jdbc:postgresql://replica-2/petclinic
+ * petclinic.datasource.read-your-writes=5s
+ * </pre>
+ *
+ * @param replicas the replicas read-only transactions are spread over
+ * @param readYourWrites time during which a client that just wrote reads from the
+ * primary, to cover the replication lag
+ */
+@ConfigurationProperties("petclinic.datasource")
+record DataSourceRoutingProperties(List<Replica> replicas, @DefaultValue("5s") Duration readYourWrites) {
+
+	DataSourceRoutingProperties {
+		replicas = (replicas != null) ? replicas : List.of();
+	}
+
+	/**
+	 * Connection settings of a single replica. Unset credentials are the ones of the
+	 * primary.
+	 *
+	 * @param url JDBC url of the replica
+	 * @param username login username of the replica
+	 * @param password login password of the replica
+	 */
+	record Replica(String url, String username, String password) {
+
+	}
+
+}
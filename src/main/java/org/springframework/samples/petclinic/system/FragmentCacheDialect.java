@@ -0,0 +1,160 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.system;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.TemplateSpec;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.context.IContext;
+import org.thymeleaf.context.ITemplateContext;
+import org.thymeleaf.context.IWebContext;
+import org.thymeleaf.context.WebContext;
+import org.thymeleaf.dialect.AbstractProcessorDialect;
+import org.thymeleaf.engine.AttributeName;
+import org.thymeleaf.model.IModel;
+import org.thymeleaf.model.IProcessableElementTag;
+import org.thymeleaf.processor.IProcessor;
+import org.thymeleaf.processor.element.AbstractAttributeModelProcessor;
+import org.thymeleaf.processor.element.IElementModelStructureHandler;
+import org.thymeleaf.standard.StandardDialect;
+import org.thymeleaf.standard.expression.StandardExpressions;
+import org.thymeleaf.templatemode.TemplateMode;
+
+/**
+ * Thymeleaf dialect caching the output of template fragments. A fragment marked with
+ * {@code pc:cache} is rendered once per template, fragment, locale and data version, the
+ * version being the value of the {@code pc:cache} expression, e.g.
+ *
+ * <pre class="code">
+ * &lt;nav th:fragment="navbar" pc:cache="${menu}"&gt;
+ * </pre>
+ *
+ * Later pages splice the rendered output in as text, without processing the fragment
+ * again. An empty expression marks a fragment that only depends on the locale. The
+ * fragment is rendered on its own, from the variables of the page, so it must not take
+ * parameters, nor render anything specific to a user or a session.
+ * <p>
+ * Fragments are held in the {@code fragments} cache. They are only cached along with the
+ * templates themselves, unless {@code petclinic.fragment-cache.enabled} says otherwise.
+ */
+@Component
+class FragmentCacheDialect extends AbstractProcessorDialect {
+
+	static final String CACHE_NAME = "fragments";
+
+	private static final ThreadLocal<Set<FragmentKey>> rendering = ThreadLocal.withInitial(HashSet::new);
+
+	private final ObjectProvider<ITemplateEngine> templateEngine;
+
+	private final ObjectProvider<CacheManager> cacheManager;
+
+	private final boolean enabled;
+
+	FragmentCacheDialect(ObjectProvider<ITemplateEngine> templateEngine, ObjectProvider<CacheManager> cacheManager,
+			@Value("${petclinic.fragment-cache.enabled:${spring.thymeleaf.cache:true}}") boolean enabled) {
+		// before the standard dialect, so that cached fragments are not processed at all
+		super("Fragment cache", "pc", StandardDialect.PROCESSOR_PRECEDENCE - 100);
+		this.templateEngine = templateEngine;
+		this.cacheManager = cacheManager;
+		this.enabled = enabled;
+	}
+
+	@Override
+	public Set<IProcessor> getProcessors(String dialectPrefix) {
+		return Set.of(new FragmentCacheProcessor(dialectPrefix));
+	}
+
+	private Cache cache() {
+		CacheManager cacheManager = this.enabled ? this.cacheManager.getIfAvailable() : null;
+		return (cacheManager != null) ? cacheManager.getCache(CACHE_NAME) : null;
+	}
+
+	private String render(ITemplateContext context, FragmentKey key) {
+		Map<String, Object> variables = new HashMap<>();
+		for (String name : context.getVariableNames()) {
+			variables.put(name, context.getVariable(name));
+		}
+		IContext fragmentContext = (context instanceof IWebContext webContext)
+				? new WebContext(webContext.getExchange(), key.locale(), variables)
+				: new Context(key.locale(), variables);
+		TemplateSpec fragment = new TemplateSpec(key.template(), Set.of(key.fragment()), context.getTemplateMode(),
+				null);
+		return this.templateEngine.getObject().process(fragment, fragmentContext);
+	}
+
+	private final class FragmentCacheProcessor extends AbstractAttributeModelProcessor {
+
+		FragmentCacheProcessor(String dialectPrefix) {
+			super(TemplateMode.HTML, dialectPrefix, null, false, "cache", true, 100, true);
+		}
+
+		@Override
+		protected void doProcess(ITemplateContext context, IModel model, AttributeName attributeName,
+				String attributeValue, IElementModelStructureHandler structureHandler) {
+			Cache cache = cache();
+			IProcessableElementTag tag = (IProcessableElementTag) model.get(0);
+			String fragment = tag.getAttributeValue(StandardDialect.PREFIX, "fragment");
+			if (cache == null || fragment == null) {
+				return;
+			}
+			FragmentKey key = new FragmentKey(tag.getTemplateName(), fragment, context.getLocale(),
+					version(context, attributeValue));
+			if (!rendering.get().add(key)) {
+				// the fragment is being rendered for the cache, process it as usual
+				return;
+			}
+			try {
+				String output = cache.get(key, String.class);
+				if (output == null) {
+					output = render(context, key);
+					cache.put(key, output);
+				}
+				model.reset();
+				model.add(context.getModelFactory().createText(output));
+			}
+			finally {
+				rendering.get().remove(key);
+			}
+		}
+
+		private static String version(ITemplateContext context, String expression) {
+			if (!StringUtils.hasText(expression)) {
+				return "";
+			}
+			return String.valueOf(StandardExpressions.getExpressionParser(context.getConfiguration())
+				.parseExpression(context, expression)
+				.execute(context));
+		}
+
+	}
+
+	private record FragmentKey(String template, String fragment, Locale locale, String version) {
+
+	}
+
+}
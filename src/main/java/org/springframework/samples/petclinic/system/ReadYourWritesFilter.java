@@ -0,0 +1,94 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.system;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Pins the requests that write, and the requests a client makes shortly after writing, to
+ * the primary datasource. A write, e.g. the {@code POST} of the owner form, marks the
+ * client with a cookie holding the end of the read-your-writes window, so that the
+ * redirect that follows and any request until then see the write even if the replicas are
+ * lagging.
+ *
+ * @see ReplicaDataSource
+ */
+class ReadYourWritesFilter extends OncePerRequestFilter {
+
+	static final String COOKIE_NAME = "PETCLINIC_PRIMARY_UNTIL";
+
+	private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS", "TRACE");
+
+	private final Duration window;
+
+	ReadYourWritesFilter(Duration window) {
+		this.window = window;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		long now = System.currentTimeMillis();
+		boolean write = !SAFE_METHODS.contains(request.getMethod());
+		if (write) {
+			response.addCookie(cookie(request, now + this.window.toMillis()));
+		}
+		if (!write && !withinWindow(request, now)) {
+			chain.doFilter(request, response);
+			return;
+		}
+		ReplicaDataSource.pinToPrimary();
+		try {
+			chain.doFilter(request, response);
+		}
+		finally {
+			ReplicaDataSource.unpin();
+		}
+	}
+
+	private Cookie cookie(HttpServletRequest request, long until) {
+		Cookie cookie = new Cookie(COOKIE_NAME, Long.toString(until));
+		cookie.setPath(request.getContextPath().isEmpty() ? "/" : request.getContextPath());
+		cookie.setMaxAge((int) Math.max(1, this.window.toSeconds()));
+		cookie.setHttpOnly(true);
+		return cookie;
+	}
+
+	private static boolean withinWindow(HttpServletRequest request, long now) {
+		Cookie cookie = WebUtils.getCookie(request, COOKIE_NAME);
+		if (cookie == null) {
+			return false;
+		}
+		try {
+			return Long.parseLong(cookie.getValue()) > now;
+		}
+		catch (NumberFormatException ex) {
+			return false;
+		}
+	}
+
+}
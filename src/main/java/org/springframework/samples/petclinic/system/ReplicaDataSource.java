@@ -0,0 +1,84 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.system;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Data source of the read-only transactions, spreading their connections over the
+ * replicas in turn. The thread of a client that just wrote is pinned to the primary
+ * instead, so that it reads its own writes whatever the replication lag.
+ *
+ * @see ReadYourWritesFilter
+ */
+class ReplicaDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+	private static final String PRIMARY = "primary";
+
+	private static final ThreadLocal<Boolean> pinned = new ThreadLocal<>();
+
+	private final List<HikariDataSource> replicas;
+
+	private final AtomicInteger next = new AtomicInteger();
+
+	ReplicaDataSource(DataSource primary, List<HikariDataSource> replicas) {
+		Map<Object, Object> targets = new HashMap<>();
+		targets.put(PRIMARY, primary);
+		for (int i = 0; i < replicas.size(); i++) {
+			targets.put(i, replicas.get(i));
+		}
+		setTargetDataSources(targets);
+		setLenientFallback(false);
+		this.replicas = replicas;
+	}
+
+	/**
+	 * Route the connections of the current thread to the primary, until {@link #unpin()}.
+	 */
+	static void pinToPrimary() {
+		pinned.set(Boolean.TRUE);
+	}
+
+	/**
+	 * Route the connections of the current thread to the replicas again.
+	 */
+	static void unpin() {
+		pinned.remove();
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+		if (pinned.get() != null) {
+			return PRIMARY;
+		}
+		return Math.floorMod(this.next.getAndIncrement(), this.replicas.size());
+	}
+
+	@Override
+	public void close() {
+		this.replicas.forEach(HikariDataSource::close);
+	}
+
+}
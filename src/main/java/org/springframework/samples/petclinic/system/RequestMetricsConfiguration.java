@@ -0,0 +1,114 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.system;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Records the Hibernate {@link RequestStatistics statistics} of each request handled by a
+ * controller, tagged by HTTP method and URI template, so that pages fanning out into many
+ * statements stand out:
+ * <ul>
+ * <li>{@code petclinic.request.statements}: the JDBC statements prepared</li>
+ * <li>{@code petclinic.request.entities}: the entities loaded or fetched</li>
+ * <li>{@code petclinic.request.collections}: the collections loaded or fetched</li>
+ * </ul>
+ * Request and repository latencies are timed by Spring Boot, as
+ * {@code http.server.requests} and {@code spring.data.repository.invocations}.
+ */
+@Configuration(proxyBeanMethods = false)
+class RequestMetricsConfiguration {
+
+	@Bean
+	public HibernatePropertiesCustomizer requestStatisticsCustomizer() {
+		return hibernateProperties -> {
+			hibernateProperties.put(AvailableSettings.GENERATE_STATISTICS, true);
+			hibernateProperties.put(AvailableSettings.STATS_BUILDER, RequestStatistics.factory());
+			// statistics would otherwise be logged for every session
+			hibernateProperties.put(AvailableSettings.LOG_SESSION_METRICS, false);
+		};
+	}
+
+	@Bean
+	public WebMvcConfigurer requestStatisticsConfigurer(MeterRegistry registry) {
+		return new WebMvcConfigurer() {
+
+			@Override
+			public void addInterceptors(InterceptorRegistry interceptors) {
+				interceptors.addInterceptor(new RequestStatisticsInterceptor(registry));
+			}
+
+		};
+	}
+
+	private static final class RequestStatisticsInterceptor implements HandlerInterceptor {
+
+		private final MeterRegistry registry;
+
+		RequestStatisticsInterceptor(MeterRegistry registry) {
+			this.registry = registry;
+		}
+
+		@Override
+		public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+			if (handler instanceof HandlerMethod) {
+				RequestStatistics.begin();
+			}
+			return true;
+		}
+
+		@Override
+		public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+				Exception ex) {
+			RequestStatistics statistics = RequestStatistics.end();
+			if (statistics == null) {
+				return;
+			}
+			Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+			Tags tags = Tags.of("method", request.getMethod(), "uri",
+					(pattern != null) ? pattern.toString() : "UNKNOWN");
+			record("petclinic.request.statements", "JDBC statements prepared per request", tags,
+					statistics.getStatements());
+			record("petclinic.request.entities", "Entities loaded per request", tags, statistics.getEntities());
+			record("petclinic.request.collections", "Collections loaded per request", tags,
+					statistics.getCollections());
+		}
+
+		private void record(String name, String description, Tags tags, int amount) {
+			DistributionSummary.builder(name)
+				.description(description)
+				.tags(tags)
+				.register(this.registry)
+				.record(amount);
+		}
+
+	}
+
+}
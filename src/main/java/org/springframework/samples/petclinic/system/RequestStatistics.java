@@ -0,0 +1,134 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.system;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.internal.StatisticsImpl;
+import org.hibernate.stat.spi.StatisticsFactory;
+
+/**
+ * Hibernate statistics of a single request: the statements prepared, the entities loaded
+ * and the collections fetched while it is handled. Hibernate only keeps statistics for
+ * the whole session factory, so the {@link #factory() statistics} it is given also count
+ * into the statistics of the current thread, between {@link #begin()} and {@link #end()}.
+ */
+final class RequestStatistics {
+
+	private static final ThreadLocal<RequestStatistics> current = new ThreadLocal<>();
+
+	private int statements;
+
+	private int entities;
+
+	private int collections;
+
+	private RequestStatistics() {
+	}
+
+	/**
+	 * Start counting for the current thread.
+	 */
+	static void begin() {
+		current.set(new RequestStatistics());
+	}
+
+	/**
+	 * Stop counting for the current thread.
+	 * @return the statistics counted since {@link #begin()}, or {@literal null} if not
+	 * counting
+	 */
+	static RequestStatistics end() {
+		RequestStatistics statistics = current.get();
+		current.remove();
+		return statistics;
+	}
+
+	/**
+	 * Return a factory of session factory statistics that also count into the statistics
+	 * of the current thread.
+	 */
+	static StatisticsFactory factory() {
+		return RecordingStatistics::new;
+	}
+
+	int getStatements() {
+		return this.statements;
+	}
+
+	int getEntities() {
+		return this.entities;
+	}
+
+	int getCollections() {
+		return this.collections;
+	}
+
+	private static final class RecordingStatistics extends StatisticsImpl {
+
+		RecordingStatistics(SessionFactoryImplementor sessionFactory) {
+			super(sessionFactory);
+		}
+
+		@Override
+		public void prepareStatement() {
+			super.prepareStatement();
+			RequestStatistics statistics = current.get();
+			if (statistics != null) {
+				statistics.statements++;
+			}
+		}
+
+		@Override
+		public void loadEntity(String entityName) {
+			super.loadEntity(entityName);
+			countEntity();
+		}
+
+		@Override
+		public void fetchEntity(String entityName) {
+			super.fetchEntity(entityName);
+			countEntity();
+		}
+
+		@Override
+		public void loadCollection(String role) {
+			super.loadCollection(role);
+			countCollection();
+		}
+
+		@Override
+		public void fetchCollection(String role) {
+			super.fetchCollection(role);
+			countCollection();
+		}
+
+		private static void countEntity() {
+			RequestStatistics statistics = current.get();
+			if (statistics != null) {
+				statistics.entities++;
+			}
+		}
+
+		private static void countCollection() {
+			RequestStatistics statistics = current.get();
+			if (statistics != null) {
+				statistics.collections++;
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.system;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Trace of a single request: its timings and the SQL statements it executed, with their
+ * bind values and durations. The trace of the current thread is filled in by the
+ * {@link SqlRecordingInterceptor} between {@link #begin(int)} and {@link #end()}.
+ */
+final class RequestTrace {
+
+	private static final ThreadLocal<RequestTrace> current = new ThreadLocal<>();
+
+	private final int maxStatements;
+
+	private final long start = System.nanoTime();
+
+	private long handled;
+
+	private long end;
+
+	private long databaseNanos;
+
+	private int statementCount;
+
+	private final List<Statement> statements = new ArrayList<>();
+
+	private RequestTrace(int maxStatements) {
+		this.maxStatements = maxStatements;
+	}
+
+	/**
+	 * Start tracing the current thread.
+	 * @param maxStatements number of statements to keep, later ones are only counted
+	 */
+	static void begin(int maxStatements) {
+		current.set(new RequestTrace(maxStatements));
+	}
+
+	/**
+	 * Return the trace of the current thread.
+	 * @return the trace, or {@literal null} if not tracing
+	 */
+	static RequestTrace current() {
+		return current.get();
+	}
+
+	/**
+	 * Stop tracing the current thread.
+	 * @return the trace since {@link #begin(int)}, or {@literal null} if not tracing
+	 */
+	static RequestTrace end() {
+		RequestTrace trace = current.get();
+		current.remove();
+		if (trace != null) {
+			trace.end = System.nanoTime();
+		}
+		return trace;
+	}
+
+	/**
+	 * Mark the end of the handler, the rest of the request being spent rendering the
+	 * view.
+	 */
+	void handled() {
+		this.handled = System.nanoTime();
+	}
+
+	void statement(String sql, List<Object> binds, int batchSize, long nanos) {
+		this.databaseNanos += nanos;
+		this.statementCount++;
+		if (this.statements.size() < this.maxStatements) {
+			this.statements.add(new Statement(sql, binds, batchSize, nanos));
+		}
+	}
+
+	long getTotalNanos() {
+		return this.end - this.start;
+	}
+
+	long getDatabaseNanos() {
+		return this.databaseNanos;
+	}
+
+	long getViewNanos() {
+		return (this.handled != 0) ? this.end - this.handled : 0;
+	}
+
+	int getStatementCount() {
+		return this.statementCount;
+	}
+
+	List<Statement> getStatements() {
+		return this.statements;
+	}
+
+	/**
+	 * A SQL statement executed while tracing.
+	 *
+	 * @param sql the SQL
+	 * @param binds the values bound to its parameters, in order, for the first row of a
+	 * batch
+	 * @param batchSize the number of rows of a batch, {@literal 0} if not batched
+	 * @param nanos the execution time, in nanoseconds
+	 */
+	record Statement(String sql, List<Object> binds, int batchSize, long nanos) {
+
+	}
+
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.system;
+
+import javax.sql.DataSource;
+
+import org.springframework.aop.framework.AbstractAdvisingBeanPostProcessor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.NameMatchMethodPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Traces the requests handled by a controller, so that the slow ones are logged along
+ * with the SQL statements they executed, and exposed by the {@code slowrequests} actuator
+ * endpoint.
+ *
+ * @see SlowRequestLog
+ * @see SlowRequestProperties
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(SlowRequestProperties.class)
+class SlowRequestConfiguration {
+
+	/**
+	 * Advise the datasources handing out connections, the connection pool or the pools of
+	 * the read/write routing, so that the statements of traced requests are recorded.
+	 */
+	@Bean
+	static BeanPostProcessor sqlRecordingDataSourcePostProcessor() {
+		return new SqlRecordingPostProcessor();
+	}
+
+	@Bean
+	SlowRequestLog slowRequestLog(SlowRequestProperties properties, ObjectProvider<DataSource> dataSource) {
+		return new SlowRequestLog(properties, dataSource.getIfAvailable());
+	}
+
+	@Bean
+	SlowRequestEndpoint slowRequestEndpoint(SlowRequestLog slowRequestLog) {
+		return new SlowRequestEndpoint(slowRequestLog);
+	}
+
+	@Bean
+	public WebMvcConfigurer slowRequestConfigurer(SlowRequestProperties properties, SlowRequestLog slowRequestLog) {
+		return new WebMvcConfigurer() {
+
+			@Override
+			public void addInterceptors(InterceptorRegistry interceptors) {
+				interceptors.addInterceptor(new RequestTraceInterceptor(properties.maxStatements(), slowRequestLog));
+			}
+
+		};
+	}
+
+	/**
+	 * Proxies every datasource by class, so that it keeps its declared type. Delegating
+	 * datasources, such as the lazy proxy of the read/write routing, are left as is, as
+	 * they hand out the connections of an advised datasource.
+	 */
+	private static final class SqlRecordingPostProcessor extends AbstractAdvisingBeanPostProcessor {
+
+		SqlRecordingPostProcessor() {
+			NameMatchMethodPointcut pointcut = new NameMatchMethodPointcut();
+			pointcut.setMappedName("getConnection");
+			pointcut.setClassFilter((type) -> DataSource.class.isAssignableFrom(type)
+					&& !DelegatingDataSource.class.isAssignableFrom(type));
+			this.advisor = new DefaultPointcutAdvisor(pointcut, new SqlRecordingInterceptor());
+			setProxyTargetClass(true);
+		}
+
+	}
+
+	private static final class RequestTraceInterceptor implements HandlerInterceptor {
+
+		private final int maxStatements;
+
+		private final SlowRequestLog log;
+
+		RequestTraceInterceptor(int maxStatements, SlowRequestLog log) {
+			this.maxStatements = maxStatements;
+			this.log = log;
+		}
+
+		@Override
+		public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+			if (handler instanceof HandlerMethod) {
+				RequestTrace.begin(this.maxStatements);
+			}
+			return true;
+		}
+
+		@Override
+		public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+				ModelAndView modelAndView) {
+			RequestTrace trace = RequestTrace.current();
+			if (trace != null) {
+				trace.handled();
+			}
+		}
+
+		@Override
+		public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+				Exception ex) {
+			RequestTrace trace = RequestTrace.end();
+			if (trace == null) {
+				return;
+			}
+			String query = request.getQueryString();
+			this.log.record(request.getMethod(), request.getRequestURI() + ((query != null) ? "?" + query : ""), trace);
+		}
+
+	}
+
+}
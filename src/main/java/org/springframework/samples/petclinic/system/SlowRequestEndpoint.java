@@ -0,0 +1,53 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.system;
+
+import java.util.List;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.samples.petclinic.system.SlowRequestLog.SlowRequest;
+
+/**
+ * Actuator endpoint listing the most recent slow requests, the slowest first, with the
+ * SQL statements they executed, e.g. {@code GET /actuator/slowrequests}. The log is
+ * emptied with {@code DELETE /actuator/slowrequests}. As it shows the SQL of the requests
+ * and can be written to, it is left out of the web exposure of the actuator endpoints
+ * unless explicitly exposed.
+ *
+ * @see SlowRequestLog
+ */
+@Endpoint(id = "slowrequests")
+class SlowRequestEndpoint {
+
+	private final SlowRequestLog log;
+
+	SlowRequestEndpoint(SlowRequestLog log) {
+		this.log = log;
+	}
+
+	@ReadOperation
+	public List<SlowRequest> slowRequests() {
+		return this.log.getRequests();
+	}
+
+	@DeleteOperation
+	public void clear() {
+		this.log.clear();
+	}
+
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.system;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+import javax.sql.DataSource;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.lang.Nullable;
+
+/**
+ * Bounded log of the most recent slow requests, those taking longer than
+ * {@code petclinic.slow-requests.threshold}. Each entry holds the timings of the request
+ * and the SQL statements it executed. The plan of the statements taking longer than
+ * {@code petclinic.slow-requests.explain-threshold} is captured with {@code EXPLAIN}, on
+ * H2, MySQL and PostgreSQL, when the log is first read after the request completed. The
+ * request thread never waits for a plan, nor takes a second connection for it, so an
+ * already slow application is not loaded further by its own diagnostics. Bind values are
+ * masked unless {@code petclinic.slow-requests.show-binds} is set.
+ *
+ * @see SlowRequestEndpoint
+ */
+class SlowRequestLog {
+
+	private static final Log logger = LogFactory.getLog(SlowRequestLog.class);
+
+	private static final Set<String> EXPLAINED_DATABASES = Set.of("H2", "MySQL", "PostgreSQL");
+
+	private static final Pattern EXPLAINED_STATEMENTS = Pattern.compile("^\\s*(select|with|insert|update|delete)\\b",
+			Pattern.CASE_INSENSITIVE);
+
+	private static final int MAX_BIND_LENGTH = 100;
+
+	private static final String MASKED_BIND = "******";
+
+	private final SlowRequestProperties properties;
+
+	private final DataSource dataSource;
+
+	private final Deque<Entry> requests = new ArrayDeque<>();
+
+	SlowRequestLog(SlowRequestProperties properties, @Nullable DataSource dataSource) {
+		this.properties = properties;
+		this.dataSource = dataSource;
+	}
+
+	/**
+	 * Log a completed request if it was slow.
+	 * @param method the HTTP method of the request
+	 * @param path the path and query of the request
+	 * @param trace the trace of the request
+	 */
+	void record(String method, String path, RequestTrace trace) {
+		if (trace.getTotalNanos() < this.properties.threshold().toNanos()) {
+			return;
+		}
+		Entry entry = new Entry(Instant.now(), method, path, trace);
+		synchronized (this.requests) {
+			if (this.requests.size() >= this.properties.capacity()) {
+				this.requests.removeFirst();
+			}
+			this.requests.addLast(entry);
+		}
+	}
+
+	/**
+	 * Return the slow requests logged, the slowest first, explaining the slow statements
+	 * of the requests logged since the last call.
+	 */
+	List<SlowRequest> getRequests() {
+		List<Entry> entries;
+		synchronized (this.requests) {
+			entries = List.copyOf(this.requests);
+		}
+		return entries.stream()
+			.map(Entry::getRequest)
+			.sorted(Comparator.comparingDouble(SlowRequest::totalMillis).reversed())
+			.toList();
+	}
+
+	void clear() {
+		synchronized (this.requests) {
+			this.requests.clear();
+		}
+	}
+
+	private List<String> explain(String sql, List<Object> binds) {
+		if (this.dataSource == null || sql == null || !EXPLAINED_STATEMENTS.matcher(sql).lookingAt()) {
+			return null;
+		}
+		try (Connection connection = this.dataSource.getConnection()) {
+			if (!EXPLAINED_DATABASES.contains(connection.getMetaData().getDatabaseProductName())) {
+				return null;
+			}
+			try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + sql)) {
+				for (int i = 0; i < binds.size(); i++) {
+					explain.setObject(i + 1, binds.get(i));
+				}
+				List<String> plan = new ArrayList<>();
+				try (ResultSet rows = explain.executeQuery()) {
+					ResultSetMetaData columns = rows.getMetaData();
+					while (rows.next()) {
+						plan.add(row(rows, columns));
+					}
+				}
+				return plan;
+			}
+		}
+		catch (SQLException ex) {
+			logger.debug("Could not explain " + sql, ex);
+			return List.of("EXPLAIN failed: " + ex.getMessage());
+		}
+	}
+
+	// H2 and PostgreSQL return the plan as text, MySQL as a table
+	private static String row(ResultSet rows, ResultSetMetaData columns) throws SQLException {
+		if (columns.getColumnCount() == 1) {
+			return rows.getString(1);
+		}
+		StringBuilder row = new StringBuilder();
+		for (int i = 1; i <= columns.getColumnCount(); i++) {
+			row.append((i > 1) ? ", " : "").append(columns.getColumnLabel(i)).append(": ").append(rows.getString(i));
+		}
+		return row.toString();
+	}
+
+	private String describe(Object value) {
+		if (value == null) {
+			return null;
+		}
+		if (!this.properties.showBinds()) {
+			return MASKED_BIND;
+		}
+		if (value instanceof byte[] bytes) {
+			return "<" + bytes.length + " bytes>";
+		}
+		String text = value.toString();
+		return (text.length() > MAX_BIND_LENGTH) ? text.substring(0, MAX_BIND_LENGTH) + "..." : text;
+	}
+
+	private static double millis(long nanos) {
+		return nanos / 1_000_000.0;
+	}
+
+	/**
+	 * A logged request, holding on to the statements of its trace, bind values included,
+	 * until they are explained. Explaining runs statements, so it is guarded by a lock
+	 * rather than a monitor, which would pin a virtual thread while waiting on the
+	 * database.
+	 */
+	private final class Entry {
+
+		private final Lock lock = new ReentrantLock();
+
+		private final Instant timestamp;
+
+		private final String method;
+
+		private final String path;
+
+		private RequestTrace trace;
+
+		private SlowRequest request;
+
+		Entry(Instant timestamp, String method, String path, RequestTrace trace) {
+			this.timestamp = timestamp;
+			this.method = method;
+			this.path = path;
+			this.trace = trace;
+		}
+
+		SlowRequest getRequest() {
+			this.lock.lock();
+			try {
+				if (this.request == null) {
+					this.request = explain();
+					this.trace = null;
+				}
+				return this.request;
+			}
+			finally {
+				this.lock.unlock();
+			}
+		}
+
+		private SlowRequest explain() {
+			Map<String, List<String>> plans = new HashMap<>();
+			List<SqlStatement> statements = new ArrayList<>();
+			for (RequestTrace.Statement statement : this.trace.getStatements()) {
+				List<String> plan = null;
+				if (statement.nanos() >= SlowRequestLog.this.properties.explainThreshold().toNanos()) {
+					plan = plans.computeIfAbsent(statement.sql(),
+							(sql) -> SlowRequestLog.this.explain(sql, statement.binds()));
+				}
+				statements.add(new SqlStatement(statement.sql(),
+						statement.binds().stream().map(SlowRequestLog.this::describe).toList(), statement.batchSize(),
+						millis(statement.nanos()), plan));
+			}
+			return new SlowRequest(this.timestamp, this.method, this.path, millis(this.trace.getTotalNanos()),
+					millis(this.trace.getDatabaseNanos()), millis(this.trace.getViewNanos()),
+					this.trace.getStatementCount(), statements);
+		}
+
+	}
+
+	/**
+	 * A slow request.
+	 *
+	 * @param timestamp when the request completed
+	 * @param method the HTTP method
+	 * @param path the path and query
+	 * @param totalMillis the time spent handling the request and rendering its view
+	 * @param databaseMillis the time spent executing SQL statements
+	 * @param viewMillis the time spent rendering the view
+	 * @param statementCount the number of SQL statements executed, including those not
+	 * kept
+	 * @param statements the SQL statements executed, in order
+	 */
+	record SlowRequest(Instant timestamp, String method, String path, double totalMillis, double databaseMillis,
+			double viewMillis, int statementCount, List<SqlStatement> statements) {
+
+	}
+
+	/**
+	 * A SQL statement executed by a slow request.
+	 *
+	 * @param sql the SQL
+	 * @param binds the values bound to its parameters, for the first row of a batch
+	 * @param batchSize the number of rows of a batch, {@literal 0} if not batched
+	 * @param millis the execution time
+	 * @param plan the plan of the statement, if it took long enough to be explained
+	 */
+	record SqlStatement(String sql, List<String> binds, int batchSize, double millis, List<String> plan) {
+
+	}
+
+}
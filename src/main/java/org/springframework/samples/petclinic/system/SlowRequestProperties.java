@@ -0,0 +1,40 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.system;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Tuning of the {@link SlowRequestLog}, bound from the {@code petclinic.slow-requests}
+ * properties.
+ *
+ * @param threshold time from which a request is logged as slow
+ * @param capacity number of slow requests kept, the oldest ones being dropped first
+ * @param explainThreshold time from which the plan of a statement of a slow request is
+ * captured
+ * @param maxStatements number of statements kept per request, later ones are only counted
+ * @param showBinds whether the values bound to the statements are shown, rather than
+ * masked, as they hold personal data such as owner names and addresses
+ */
+@ConfigurationProperties("petclinic.slow-requests")
+record SlowRequestProperties(@DefaultValue("500ms") Duration threshold, @DefaultValue("50") int capacity,
+		@DefaultValue("100ms") Duration explainThreshold, @DefaultValue("200") int maxStatements,
+		@DefaultValue("false") boolean showBinds) {
+
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.system;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * Interceptor of the {@code getConnection} methods of a data source, recording the SQL
+ * statements executed on the connections of a traced request into its
+ * {@link RequestTrace}, with their bind values and execution time. Connections fetched
+ * outside of a traced request, or already recorded by the data source they were routed
+ * to, are handed out as is.
+ */
+class SqlRecordingInterceptor implements MethodInterceptor {
+
+	@Override
+	public Object invoke(MethodInvocation invocation) throws Throwable {
+		Object result = invocation.proceed();
+		if (result instanceof Connection connection && !(connection instanceof RecordedConnection)
+				&& RequestTrace.current() != null) {
+			return record(connection);
+		}
+		return result;
+	}
+
+	private static Connection record(Connection connection) {
+		return (Connection) proxy(new Class<?>[] { Connection.class, RecordedConnection.class }, connection,
+				(proxy, method, args) -> {
+					Object result = invoke(connection, method, args);
+					if (result instanceof Statement statement
+							&& Statement.class.isAssignableFrom(method.getReturnType())) {
+						// prepared statements and calls are given their SQL, plain
+						// statements on
+						// execution
+						String sql = (args != null && args.length > 0 && args[0] instanceof String s) ? s : null;
+						return proxy(new Class<?>[] { method.getReturnType() }, statement,
+								new StatementRecorder(statement, sql));
+					}
+					return result;
+				});
+	}
+
+	private static Object proxy(Class<?>[] types, Object target, InvocationHandler handler) {
+		return Proxy.newProxyInstance(SqlRecordingInterceptor.class.getClassLoader(), types, handler);
+	}
+
+	private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		}
+		catch (InvocationTargetException ex) {
+			throw ex.getTargetException();
+		}
+	}
+
+	/**
+	 * Keeps track of the parameters bound to a statement, and records its executions.
+	 */
+	private static final class StatementRecorder implements InvocationHandler {
+
+		private final Statement statement;
+
+		private final String sql;
+
+		private final Map<Integer, Object> binds = new TreeMap<>();
+
+		private List<Object> batchBinds = List.of();
+
+		private String batchSql;
+
+		private int batchSize;
+
+		StatementRecorder(Statement statement, String sql) {
+			this.statement = statement;
+			this.sql = sql;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			String name = method.getName();
+			if (name.startsWith("set") && args != null && args.length > 1 && args[0] instanceof Integer index) {
+				this.binds.put(index, name.equals("setNull") ? null : args[1]);
+			}
+			else if (name.equals("clearParameters")) {
+				this.binds.clear();
+			}
+			else if (name.equals("addBatch")) {
+				if (this.batchSize++ == 0) {
+					this.batchSql = (args != null) ? (String) args[0] : this.sql;
+					this.batchBinds = new ArrayList<>(this.binds.values());
+				}
+			}
+			else if (name.equals("clearBatch")) {
+				this.batchSize = 0;
+			}
+			else if (name.startsWith("execute")) {
+				return execute(method, args);
+			}
+			return SqlRecordingInterceptor.invoke(this.statement, method, args);
+		}
+
+		private Object execute(Method method, Object[] args) throws Throwable {
+			long start = System.nanoTime();
+			try {
+				return SqlRecordingInterceptor.invoke(this.statement, method, args);
+			}
+			finally {
+				long nanos = System.nanoTime() - start;
+				RequestTrace trace = RequestTrace.current();
+				if (trace != null) {
+					if (method.getName().endsWith("Batch")) {
+						trace.statement(this.batchSql, this.batchBinds, this.batchSize, nanos);
+					}
+					else if (args != null && args.length > 0 && args[0] instanceof String sql) {
+						trace.statement(sql, List.of(), 0, nanos);
+					}
+					else {
+						trace.statement(this.sql, new ArrayList<>(this.binds.values()), 0, nanos);
+					}
+				}
+				if (method.getName().endsWith("Batch")) {
+					this.batchSize = 0;
+				}
+			}
+		}
+
+	}
+
+	/**
+	 * Marks the connections whose statements are already recorded.
+	 */
+	private interface RecordedConnection {
+
+	}
+
+}
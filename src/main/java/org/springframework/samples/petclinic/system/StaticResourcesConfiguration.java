@@ -0,0 +1,99 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.system;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import org.springframework.boot.autoconfigure.web.WebProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.CssLinkResourceTransformer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.ResourceTransformerChain;
+import org.springframework.web.servlet.resource.ResourceUrlEncodingFilter;
+import org.springframework.web.servlet.resource.VersionResourceResolver;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Serves the static resources and the webjars under URLs holding the hash of their
+ * content, e.g. {@code /resources/css/petclinic-<md5>.css}, which the links rendered by
+ * the templates are rewritten to. Fingerprinted resources are cached for a year as
+ * immutable, and served from their precompressed {@code .br} or {@code .gz} variant when
+ * the client accepts it. The variants, and the fingerprinted links of the stylesheets,
+ * are prepared at build time by {@code src/build/java/AssetPipeline.java}.
+ * <p>
+ * Resources requested under their plain URL are cached as set by
+ * {@code spring.web.resources.cache.cachecontrol}. The default resource mappings of
+ * Spring Boot are turned off with {@code spring.web.resources.add-mappings}.
+ */
+@Configuration(proxyBeanMethods = false)
+class StaticResourcesConfiguration implements WebMvcConfigurer {
+
+	private static final CacheControl FINGERPRINTED = CacheControl.maxAge(Duration.ofDays(365))
+		.cachePublic()
+		.immutable();
+
+	private final CacheControl cacheControl;
+
+	StaticResourcesConfiguration(WebProperties properties) {
+		this.cacheControl = properties.getResources().getCache().getCachecontrol().toHttpCacheControl();
+	}
+
+	@Override
+	public void addResourceHandlers(ResourceHandlerRegistry registry) {
+		addResourceHandler(registry, "/webjars/**", "classpath:/META-INF/resources/webjars/");
+		addResourceHandler(registry, "/resources/**", "classpath:/static/resources/");
+	}
+
+	private void addResourceHandler(ResourceHandlerRegistry registry, String pattern, String location) {
+		registry.addResourceHandler(pattern)
+			.addResourceLocations(location)
+			.setCacheControl(this.cacheControl)
+			.resourceChain(true)
+			.addResolver(new EncodedResourceResolver())
+			.addResolver(new FingerprintedResourceResolver(FINGERPRINTED))
+			.addResolver(new VersionResourceResolver().addContentVersionStrategy("/**"))
+			.addTransformer(new PrefingerprintedCssTransformer());
+	}
+
+	@Bean
+	FilterRegistrationBean<ResourceUrlEncodingFilter> resourceUrlEncodingFilter() {
+		return new FilterRegistrationBean<>(new ResourceUrlEncodingFilter());
+	}
+
+	/**
+	 * Stands in for the {@link CssLinkResourceTransformer} the chain adds by default, as
+	 * the links of the stylesheets, precompressed variants included, are fingerprinted at
+	 * build time. Transforming them again would also drop the headers of the resource.
+	 */
+	private static final class PrefingerprintedCssTransformer extends CssLinkResourceTransformer {
+
+		@Override
+		public Resource transform(HttpServletRequest request, Resource resource,
+				ResourceTransformerChain transformerChain) throws IOException {
+			return transformerChain.transform(request, resource);
+		}
+
+	}
+
+}
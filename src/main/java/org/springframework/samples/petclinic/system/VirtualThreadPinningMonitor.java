@@ -0,0 +1,120 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.system;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * Reports virtual threads pinned to their carrier thread, typically by blocking inside a
+ * {@code synchronized} block of a driver or a cache, since a pinned thread holds one of
+ * the few carriers for as long as it blocks.
+ * <p>
+ * Only active when requests run on virtual threads
+ * ({@code spring.threads.virtual.enabled} on Java 21 or later). The JDK
+ * {@code jdk.VirtualThreadPinned} events lasting longer than
+ * {@code petclinic.threads.pinned-threshold} are streamed from JFR, timed as the
+ * {@code petclinic.threads.pinned} metric, and logged once per distinct stack trace.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+class VirtualThreadPinningMonitor implements SmartLifecycle {
+
+	private static final Log logger = LogFactory.getLog(VirtualThreadPinningMonitor.class);
+
+	private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+	private static final int MAX_REPORTED_STACKS = 256;
+
+	private static final int STACK_DEPTH = 12;
+
+	private final Duration threshold;
+
+	private final Timer pinned;
+
+	private final Map<String, Boolean> reportedStacks = new ConcurrentHashMap<>();
+
+	private volatile RecordingStream recording;
+
+	VirtualThreadPinningMonitor(MeterRegistry registry,
+			@Value("${petclinic.threads.pinned-threshold:20ms}") Duration threshold) {
+		this.threshold = threshold;
+		this.pinned = Timer.builder("petclinic.threads.pinned")
+			.description("Time virtual threads spent blocked while pinned to their carrier")
+			.register(registry);
+	}
+
+	@Override
+	public void start() {
+		RecordingStream recording = new RecordingStream();
+		recording.enable(PINNED_EVENT).withThreshold(this.threshold).withStackTrace();
+		recording.onEvent(PINNED_EVENT, this::onPinned);
+		recording.startAsync();
+		this.recording = recording;
+	}
+
+	@Override
+	public void stop() {
+		RecordingStream recording = this.recording;
+		if (recording != null) {
+			recording.close();
+			this.recording = null;
+		}
+	}
+
+	@Override
+	public boolean isRunning() {
+		return this.recording != null;
+	}
+
+	void onPinned(RecordedEvent event) {
+		this.pinned.record(event.getDuration());
+		if (event.getStackTrace() == null) {
+			return;
+		}
+		String stack = stack(event.getStackTrace().getFrames());
+		if (this.reportedStacks.size() < MAX_REPORTED_STACKS
+				&& this.reportedStacks.putIfAbsent(stack, Boolean.TRUE) == null) {
+			logger.warn("Virtual thread pinned for " + event.getDuration().toMillis() + "ms at\n" + stack);
+		}
+	}
+
+	private static String stack(List<RecordedFrame> frames) {
+		return frames.stream()
+			.limit(STACK_DEPTH)
+			.map(frame -> "\tat " + frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":"
+					+ frame.getLineNumber())
+			.collect(Collectors.joining("\n"));
+	}
+
+}
@@ -15,16 +15,22 @@
  */
 package org.springframework.samples.petclinic.vet;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.Locale;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.WebRequest;
+
+import jakarta.servlet.http.HttpServletResponse;
 
 /**
  * @author Juergen Hoeller
@@ -37,12 +43,43 @@ class VetController {
 
 	private final VetRepository vetRepository;
 
-	public VetController(VetRepository clinicService) {
+	private final VetRosterWriter vetRosterWriter;
+
+	private final VetRosterGeneration generation;
+
+	public VetController(VetRepository clinicService, VetRosterWriter vetRosterWriter, VetRosterGeneration generation) {
 		this.vetRepository = clinicService;
+		this.vetRosterWriter = vetRosterWriter;
+		this.generation = generation;
+	}
+
+	/**
+	 * Check the generation of the roster against the conditional headers of the request,
+	 * before any vet is read. The generation is read first, so that a roster read after a
+	 * change is never tagged with the generation preceding the change.
+	 * @param request the current request
+	 * @return {@literal true} if the client holds the current roster and a 304 was sent
+	 */
+	private boolean checkNotModified(WebRequest request) {
+		VetRosterGeneration.Generation current = this.generation.current();
+		return request.checkNotModified("W/\"" + current.etag() + "\"", current.lastModified());
+	}
+
+	// the page is rendered in the locale of the request, which is part of its tag
+	private boolean checkNotModified(WebRequest request, VetRosterGeneration.Generation current, Locale locale) {
+		return request.checkNotModified("W/\"" + current.etag() + "-" + locale.toLanguageTag() + "\"",
+				current.lastModified());
 	}
 
 	@GetMapping("/vets.html")
-	public String showVetList(@RequestParam(defaultValue = "1") int page, Model model) {
+	public String showVetList(@RequestParam(defaultValue = "1") int page, Model model, WebRequest request,
+			Locale locale) {
+		VetRosterGeneration.Generation current = this.generation.current();
+		if (checkNotModified(request, current, locale)) {
+			return null;
+		}
+		// versions the rendered roster in the fragment cache
+		model.addAttribute("rosterVersion", current.etag());
 		// Here we are returning an object of type 'Vets' rather than a collection of Vet
 		// objects so it is simpler for Object-Xml mapping
 		Vets vets = new Vets();
@@ -67,7 +104,10 @@ class VetController {
 	}
 
 	@GetMapping({ "/vets" })
-	public @ResponseBody Vets showResourcesVetList() {
+	public @ResponseBody Vets showResourcesVetList(WebRequest request) {
+		if (checkNotModified(request)) {
+			return null;
+		}
 		// Here we are returning an object of type 'Vets' rather than a collection of Vet
 		// objects so it is simpler for JSon/Object mapping
 		Vets vets = new Vets();
@@ -75,4 +115,24 @@ class VetController {
 		return vets;
 	}
 
+	// Same JSON as above, written while the vets are read from the database rather than
+	// once they are all loaded
+	@GetMapping(value = "/vets", params = "stream", produces = MediaType.APPLICATION_JSON_VALUE)
+	public void streamResourcesVetList(WebRequest request, HttpServletResponse response) throws IOException {
+		if (checkNotModified(request)) {
+			return;
+		}
+		response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		this.vetRosterWriter.writeJson(response.getOutputStream());
+	}
+
+	@GetMapping(value = "/vets", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public void streamResourcesVetListAsNdjson(WebRequest request, HttpServletResponse response) throws IOException {
+		if (checkNotModified(request)) {
+			return;
+		}
+		response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+		this.vetRosterWriter.writeNdjson(response.getOutputStream());
+	}
+
 }
@@ -15,14 +15,26 @@
  */
 package org.springframework.samples.petclinic.vet;
 
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Collection;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+
+import jakarta.persistence.QueryHint;
 
 /**
  * Repository class for <code>Vet</code> domain objects All method names are compliant
@@ -38,9 +50,11 @@ import java.util.Collection;
 public interface VetRepository extends Repository<Vet, Integer> {
 
 	/**
-	 * Retrieve all <code>Vet</code>s from the data store.
+	 * Retrieve all <code>Vet</code>s from the data store, with their specialties fetched
+	 * by the same query.
 	 * @return a <code>Collection</code> of <code>Vet</code>s
 	 */
+	@EntityGraph(attributePaths = "specialties")
 	@Transactional(readOnly = true)
 	@Cacheable("vets")
 	Collection<Vet> findAll() throws DataAccessException;
@@ -52,7 +66,61 @@ public interface VetRepository extends Repository<Vet, Integer> {
 	 * @throws DataAccessException
 	 */
 	@Transactional(readOnly = true)
-	@Cacheable("vets")
+	@Cacheable("vet-pages")
 	Page<Vet> findAll(Pageable pageable) throws DataAccessException;
 
+	/**
+	 * Stream all <code>Vet</code>s joined with their specialties, ordered by vet, so that
+	 * the rows of a vet are adjacent. The rows are read from a database cursor and are
+	 * not attached to the persistence context, so the whole roster can be read with
+	 * constant memory. The stream must be consumed, and closed, within a transaction. On
+	 * MySQL, the fetch size is only honoured with {@code useCursorFetch=true} on the
+	 * connection URL.
+	 * @return a <code>Stream</code> of <code>VetSpecialtyRow</code>s
+	 */
+	@Query("SELECT vet.id AS id, vet.firstName AS firstName, vet.lastName AS lastName, "
+			+ "specialty.id AS specialtyId, specialty.name AS specialtyName "
+			+ "FROM Vet vet LEFT JOIN vet.specialties specialty ORDER BY vet.id")
+	@QueryHints({ @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "256"),
+			@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+	Stream<VetSpecialtyRow> streamAllWithSpecialties() throws DataAccessException;
+
+	/**
+	 * Save a <code>Vet</code> to the data store, either inserting or updating it. The vet
+	 * list and the cached pages of vets are evicted once the vet is saved, as any page
+	 * may hold the vet, and so is the {@link VetRosterGeneration generation} of the
+	 * roster.
+	 * @param vet the <code>Vet</code> to save
+	 * @return the saved <code>Vet</code>
+	 */
+	@Caching(evict = { @CacheEvict(cacheNames = "vets", allEntries = true),
+			@CacheEvict(cacheNames = "vet-pages", allEntries = true),
+			@CacheEvict(cacheNames = "vet-generation", allEntries = true) })
+	Vet save(Vet vet) throws DataAccessException;
+
+	/**
+	 * Delete a <code>Vet</code> from the data store, evicting the vet list and the cached
+	 * pages of vets once deleted.
+	 * @param vet the <code>Vet</code> to delete
+	 */
+	@Caching(evict = { @CacheEvict(cacheNames = "vets", allEntries = true),
+			@CacheEvict(cacheNames = "vet-pages", allEntries = true),
+			@CacheEvict(cacheNames = "vet-generation", allEntries = true) })
+	void delete(Vet vet) throws DataAccessException;
+
+	/**
+	 * Rename a <code>Specialty</code>. The vet list and the cached pages of vets are only
+	 * evicted if the specialty exists.
+	 * @param id the id of the specialty
+	 * @param name the new name of the specialty
+	 * @return the number of specialties renamed
+	 */
+	@Modifying(clearAutomatically = true)
+	@Query("UPDATE Specialty specialty SET specialty.name = :name WHERE specialty.id = :id")
+	@Transactional
+	@Caching(evict = { @CacheEvict(cacheNames = "vets", allEntries = true, condition = "#result > 0"),
+			@CacheEvict(cacheNames = "vet-pages", allEntries = true, condition = "#result > 0"),
+			@CacheEvict(cacheNames = "vet-generation", allEntries = true, condition = "#result > 0") })
+	int renameSpecialty(@Param("id") Integer id, @Param("name") String name) throws DataAccessException;
+
 }
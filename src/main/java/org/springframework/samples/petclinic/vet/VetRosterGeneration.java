@@ -0,0 +1,67 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.vet;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Generation counter of the cached vet roster. A generation is started on the first read
+ * after the vet caches are evicted, as the {@code vet-generation} cache is evicted last
+ * by every write of the {@link VetRepository}; it therefore identifies a state of the
+ * roster, and dates it, without loading a single vet.
+ * <p>
+ * Generations are counted per instance, so the entity tags carry the id of the instance
+ * that counted them. {@code Last-Modified} only has a precision of seconds, so every
+ * generation is dated at least a whole second after the previous one, rounded up from the
+ * time it started.
+ */
+@Component
+public class VetRosterGeneration {
+
+	private final String instance = UUID.randomUUID().toString().substring(0, 8);
+
+	private final AtomicLong counter = new AtomicLong();
+
+	private final AtomicLong lastModified = new AtomicLong();
+
+	/**
+	 * Return the current generation of the vet roster, starting a new one if the roster
+	 * changed since the last call.
+	 * @return the current generation
+	 */
+	@Cacheable("vet-generation")
+	public Generation current() {
+		long started = (System.currentTimeMillis() + 999) / 1000 * 1000;
+		return new Generation(this.instance + "-" + this.counter.incrementAndGet(),
+				this.lastModified.accumulateAndGet(started, (previous, next) -> Math.max(previous + 1000, next)));
+	}
+
+	/**
+	 * A state of the vet roster.
+	 *
+	 * @param etag the entity tag of the vet pages rendered in this state
+	 * @param lastModified the time the generation started, at or after the last change,
+	 * in whole seconds after the previous generation
+	 */
+	public record Generation(String etag, long lastModified) {
+
+	}
+
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.vet;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Writes the whole vet roster as JSON while it is read from the database, one vet at a
+ * time, so that memory does not grow with the roster and the first vets are sent before
+ * the last ones are read. Each vet is serialized exactly as in the {@link Vets} resource.
+ *
+ * @see VetRepository#streamAllWithSpecialties()
+ */
+@Component
+class VetRosterWriter {
+
+	private final VetRepository vets;
+
+	private final ObjectMapper objectMapper;
+
+	private final ObjectWriter vetWriter;
+
+	VetRosterWriter(VetRepository vets, ObjectMapper objectMapper) {
+		this.vets = vets;
+		this.objectMapper = objectMapper;
+		// the servlet response is flushed as its buffer fills, not after every vet
+		this.vetWriter = objectMapper.writerFor(Vet.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+	}
+
+	/**
+	 * Write the vets in the shape of the {@link Vets} resource, i.e. as a {@code vetList}
+	 * array.
+	 * @param out the stream to write to, left open
+	 * @throws IOException if the vets cannot be written
+	 */
+	@Transactional(readOnly = true)
+	public void writeJson(OutputStream out) throws IOException {
+		try (JsonGenerator generator = createGenerator(out)) {
+			generator.writeStartObject();
+			generator.writeArrayFieldStart("vetList");
+			writeVets(generator, false);
+			generator.writeEndArray();
+			generator.writeEndObject();
+		}
+	}
+
+	/**
+	 * Write the vets as newline delimited JSON, one vet per line.
+	 * @param out the stream to write to, left open
+	 * @throws IOException if the vets cannot be written
+	 */
+	@Transactional(readOnly = true)
+	public void writeNdjson(OutputStream out) throws IOException {
+		try (JsonGenerator generator = createGenerator(out)) {
+			generator.setRootValueSeparator(null);
+			writeVets(generator, true);
+		}
+	}
+
+	private JsonGenerator createGenerator(OutputStream out) throws IOException {
+		return this.objectMapper.getFactory()
+			.createGenerator(out)
+			.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+	}
+
+	private void writeVets(JsonGenerator generator, boolean newlineDelimited) throws IOException {
+		try (Stream<VetSpecialtyRow> rows = this.vets.streamAllWithSpecialties()) {
+			Vet vet = null;
+			for (Iterator<VetSpecialtyRow> iterator = rows.iterator(); iterator.hasNext();) {
+				VetSpecialtyRow row = iterator.next();
+				if (vet == null || !vet.getId().equals(row.getId())) {
+					if (vet != null) {
+						writeVet(generator, vet, newlineDelimited);
+					}
+					vet = new Vet();
+					vet.setId(row.getId());
+					vet.setFirstName(row.getFirstName());
+					vet.setLastName(row.getLastName());
+				}
+				if (row.getSpecialtyId() != null) {
+					Specialty specialty = new Specialty();
+					specialty.setId(row.getSpecialtyId());
+					specialty.setName(row.getSpecialtyName());
+					vet.addSpecialty(specialty);
+				}
+			}
+			if (vet != null) {
+				writeVet(generator, vet, newlineDelimited);
+			}
+		}
+	}
+
+	private void writeVet(JsonGenerator generator, Vet vet, boolean newlineDelimited) throws IOException {
+		this.vetWriter.writeValue(generator, vet);
+		if (newlineDelimited) {
+			generator.writeRaw('\n');
+		}
+	}
+
+}
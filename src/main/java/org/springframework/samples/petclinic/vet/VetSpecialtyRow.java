@@ -0,0 +1,35 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.vet;
+
+/**
+ * A {@link Vet} joined with one of its {@link Specialty specialties}, as streamed by
+ * {@link VetRepository#streamAllWithSpecialties()}. A vet without specialties comes as a
+ * single row whose specialty is {@literal null}.
+ */
+public interface VetSpecialtyRow {
+
+	Integer getId();
+
+	String getFirstName();
+
+	String getLastName();
+
+	Integer getSpecialtyId();
+
+	String getSpecialtyName();
+
+}
@@ -1,12 +1,12 @@
 CREATE TABLE IF NOT EXISTS vets (
-  id INT(4) UNSIGNED NOT NULL AUTO_INCREMENT PRIMARY KEY,
+  id INT(4) UNSIGNED NOT NULL PRIMARY KEY,
   first_name VARCHAR(30),
   last_name VARCHAR(30),
   INDEX(last_name)
 ) engine=InnoDB;
 
 CREATE TABLE IF NOT EXISTS specialties (
-  id INT(4) UNSIGNED NOT NULL AUTO_INCREMENT PRIMARY KEY,
+  id INT(4) UNSIGNED NOT NULL PRIMARY KEY,
   name VARCHAR(80),
   INDEX(name)
 ) engine=InnoDB;
@@ -20,23 +20,30 @@ CREATE TABLE IF NOT EXISTS vet_specialties (
 ) engine=InnoDB;
 
 CREATE TABLE IF NOT EXISTS types (
-  id INT(4) UNSIGNED NOT NULL AUTO_INCREMENT PRIMARY KEY,
+  id INT(4) UNSIGNED NOT NULL PRIMARY KEY,
   name VARCHAR(80),
   INDEX(name)
 ) engine=InnoDB;
 
 CREATE TABLE IF NOT EXISTS owners (
-  id INT(4) UNSIGNED NOT NULL AUTO_INCREMENT PRIMARY KEY,
+  id INT(4) UNSIGNED NOT NULL PRIMARY KEY,
   first_name VARCHAR(30),
   last_name VARCHAR(30),
   address VARCHAR(255),
   city VARCHAR(80),
   telephone VARCHAR(20),
+  version INT NOT NULL DEFAULT 0,
   INDEX(last_name)
 ) engine=InnoDB;
+SET @ddl = IF(EXISTS (SELECT * FROM information_schema.columns
+    WHERE table_schema = DATABASE() AND table_name = 'owners' AND column_name = 'version'),
+  'SELECT 1', 'ALTER TABLE owners ADD COLUMN version INT NOT NULL DEFAULT 0');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
 
 CREATE TABLE IF NOT EXISTS pets (
-  id INT(4) UNSIGNED NOT NULL AUTO_INCREMENT PRIMARY KEY,
+  id INT(4) UNSIGNED NOT NULL PRIMARY KEY,
   name VARCHAR(30),
   birth_date DATE,
   type_id INT(4) UNSIGNED NOT NULL,
@@ -47,9 +54,58 @@ CREATE TABLE IF NOT EXISTS pets (
 ) engine=InnoDB;
 
 CREATE TABLE IF NOT EXISTS visits (
-  id INT(4) UNSIGNED NOT NULL AUTO_INCREMENT PRIMARY KEY,
+  id INT(4) UNSIGNED NOT NULL PRIMARY KEY,
   pet_id INT(4) UNSIGNED,
   visit_date DATE,
   description VARCHAR(255),
+  INDEX(pet_id, visit_date),
   FOREIGN KEY (pet_id) REFERENCES pets(id)
 ) engine=InnoDB;
+SET @ddl = IF(EXISTS (SELECT * FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'visits' AND column_name = 'visit_date'),
+  'SELECT 1', 'CREATE INDEX visits_pet_id_visit_date ON visits (pet_id, visit_date)');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+
+CREATE TABLE IF NOT EXISTS import_checkpoints (
+  job VARCHAR(80) NOT NULL,
+  chunk INT(4) UNSIGNED NOT NULL,
+  PRIMARY KEY (job, chunk)
+) engine=InnoDB;
+
+CREATE TABLE IF NOT EXISTS vets_seq (
+  next_val BIGINT
+) engine=InnoDB;
+INSERT INTO vets_seq (next_val)
+  SELECT GREATEST(100, COALESCE(MAX(id), 0) + 1) FROM vets WHERE NOT EXISTS (SELECT * FROM vets_seq);
+
+CREATE TABLE IF NOT EXISTS specialties_seq (
+  next_val BIGINT
+) engine=InnoDB;
+INSERT INTO specialties_seq (next_val)
+  SELECT GREATEST(100, COALESCE(MAX(id), 0) + 1) FROM specialties WHERE NOT EXISTS (SELECT * FROM specialties_seq);
+
+CREATE TABLE IF NOT EXISTS types_seq (
+  next_val BIGINT
+) engine=InnoDB;
+INSERT INTO types_seq (next_val)
+  SELECT GREATEST(100, COALESCE(MAX(id), 0) + 1) FROM types WHERE NOT EXISTS (SELECT * FROM types_seq);
+
+CREATE TABLE IF NOT EXISTS owners_seq (
+  next_val BIGINT
+) engine=InnoDB;
+INSERT INTO owners_seq (next_val)
+  SELECT GREATEST(100, COALESCE(MAX(id), 0) + 1) FROM owners WHERE NOT EXISTS (SELECT * FROM owners_seq);
+
+CREATE TABLE IF NOT EXISTS pets_seq (
+  next_val BIGINT
+) engine=InnoDB;
+INSERT INTO pets_seq (next_val)
+  SELECT GREATEST(100, COALESCE(MAX(id), 0) + 1) FROM pets WHERE NOT EXISTS (SELECT * FROM pets_seq);
+
+CREATE TABLE IF NOT EXISTS visits_seq (
+  next_val BIGINT
+) engine=InnoDB;
+INSERT INTO visits_seq (next_val)
+  SELECT GREATEST(100, COALESCE(MAX(id), 0) + 1) FROM visits WHERE NOT EXISTS (SELECT * FROM visits_seq);
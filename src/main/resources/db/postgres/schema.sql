@@ -1,12 +1,19 @@
+CREATE SEQUENCE IF NOT EXISTS vets_seq START WITH 100 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS specialties_seq START WITH 100 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS types_seq START WITH 100 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS owners_seq START WITH 100 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS pets_seq START WITH 100 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS visits_seq START WITH 100 INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS vets (
-  id         INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  id         INT DEFAULT nextval('vets_seq') PRIMARY KEY,
   first_name TEXT,
   last_name  TEXT
 );
 CREATE INDEX ON vets (last_name);
 
 CREATE TABLE IF NOT EXISTS specialties (
-  id   INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  id   INT DEFAULT nextval('specialties_seq') PRIMARY KEY,
   name TEXT
 );
 CREATE INDEX ON specialties (name);
@@ -18,23 +25,25 @@ CREATE TABLE IF NOT EXISTS vet_specialties (
 );
 
 CREATE TABLE IF NOT EXISTS types (
-  id   INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  id   INT DEFAULT nextval('types_seq') PRIMARY KEY,
   name TEXT
 );
 CREATE INDEX ON types (name);
 
 CREATE TABLE IF NOT EXISTS owners (
-  id         INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  id         INT DEFAULT nextval('owners_seq') PRIMARY KEY,
   first_name TEXT,
   last_name  TEXT,
   address    TEXT,
   city       TEXT,
-  telephone  TEXT
+  telephone  TEXT,
+  version    INT NOT NULL DEFAULT 0
 );
+ALTER TABLE owners ADD COLUMN IF NOT EXISTS version INT NOT NULL DEFAULT 0;
 CREATE INDEX ON owners (last_name);
 
 CREATE TABLE IF NOT EXISTS pets (
-  id         INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  id         INT DEFAULT nextval('pets_seq') PRIMARY KEY,
   name       TEXT,
   birth_date DATE,
   type_id    INT NOT NULL REFERENCES types (id),
@@ -44,9 +53,15 @@ CREATE INDEX ON pets (name);
 CREATE INDEX ON pets (owner_id);
 
 CREATE TABLE IF NOT EXISTS visits (
-  id          INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  id          INT DEFAULT nextval('visits_seq') PRIMARY KEY,
   pet_id      INT REFERENCES pets (id),
   visit_date  DATE,
   description TEXT
 );
-CREATE INDEX ON visits (pet_id);
+CREATE INDEX IF NOT EXISTS visits_pet_id_visit_date ON visits (pet_id, visit_date);
+
+CREATE TABLE IF NOT EXISTS import_checkpoints (
+  job   TEXT NOT NULL,
+  chunk INT NOT NULL,
+  PRIMARY KEY (job, chunk)
+);
@@ -17,18 +17,28 @@
 package org.springframework.samples.petclinic;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 
 import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
 import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.RequestEntity;
 import org.springframework.http.ResponseEntity;
+import org.springframework.samples.petclinic.vet.Specialty;
+import org.springframework.samples.petclinic.vet.Vet;
 import org.springframework.samples.petclinic.vet.VetRepository;
+import org.springframework.samples.petclinic.vet.VetRosterGeneration;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
 @SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
@@ -40,15 +50,53 @@ public class PetClinicIntegrationTests {
 	@Autowired
 	private VetRepository vets;
 
+	@Autowired
+	private VetRosterGeneration generation;
+
 	@Autowired
 	private RestTemplateBuilder builder;
 
+	@Autowired
+	private MeterRegistry registry;
+
 	@Test
 	void testFindAll() throws Exception {
 		vets.findAll();
 		vets.findAll(); // served from cache
 	}
 
+	@Test
+	void testWritesEvictCachedVets() {
+		Vet vet = vets.findAll().iterator().next();
+		String firstName = vet.getFirstName();
+		vet.setFirstName("Renamed");
+		vets.save(vet);
+		assertThat(vets.findAll()).extracting(Vet::getFirstName).contains("Renamed");
+		vet.setFirstName(firstName);
+		vets.save(vet);
+
+		vets.findAll(PageRequest.of(0, 10)); // cached page
+		assertThat(vets.renameSpecialty(1, "x-ray")).isEqualTo(1);
+		assertThat(vets.findAll(PageRequest.of(0, 10)).getContent()).flatExtracting(Vet::getSpecialties)
+			.extracting(Specialty::getName)
+			.contains("x-ray")
+			.doesNotContain("radiology");
+		vets.renameSpecialty(1, "radiology");
+	}
+
+	@Test
+	void testWritesStartNewVetRosterGeneration() {
+		VetRosterGeneration.Generation generation = this.generation.current();
+		assertThat(this.generation.current()).isEqualTo(generation);
+
+		vets.save(vets.findAll().iterator().next());
+		VetRosterGeneration.Generation next = this.generation.current();
+		assertThat(next.etag()).isNotEqualTo(generation.etag());
+		// Last-Modified has a precision of seconds
+		assertThat(next.lastModified() % 1000).isZero();
+		assertThat(next.lastModified()).isGreaterThanOrEqualTo(generation.lastModified() + 1000);
+	}
+
 	@Test
 	void testOwnerDetails() {
 		RestTemplate template = builder.rootUri("http://localhost:" + port).build();
@@ -56,6 +104,41 @@ public class PetClinicIntegrationTests {
 		assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
 	}
 
+	@Test
+	void testSlowRequestsNotExposedByDefault() {
+		RestTemplate template = builder.rootUri("http://localhost:" + port).build();
+		assertThatExceptionOfType(HttpClientErrorException.NotFound.class)
+			.isThrownBy(() -> template.exchange(RequestEntity.get("/actuator/slowrequests").build(), String.class));
+	}
+
+	@Test
+	void testOwnerDetailsMetrics() {
+		RestTemplate template = builder.rootUri("http://localhost:" + port).build();
+		template.exchange(RequestEntity.get("/owners/1").build(), String.class);
+
+		DistributionSummary statements = registry.get("petclinic.request.statements")
+			.tags("method", "GET", "uri", "/owners/{ownerId}")
+			.summary();
+		assertThat(statements.count()).isPositive();
+		assertThat(statements.max()).isGreaterThanOrEqualTo(2);
+		assertThat(registry.get("petclinic.request.entities").tag("uri", "/owners/{ownerId}").summary().max())
+			.isPositive();
+		assertThat(registry.get("spring.data.repository.invocations")
+			.tags("repository", "OwnerRepository", "method", "findSummaryById")
+			.timer()
+			.count()).isPositive();
+	}
+
+	@Test
+	void testStreamedVetListMatchesVetList() {
+		RestTemplate template = builder.rootUri("http://localhost:" + port).build();
+		String vetList = template.getForObject("/vets", String.class);
+		ResponseEntity<String> streamed = template.exchange(RequestEntity.get("/vets?stream=true").build(),
+				String.class);
+		assertThat(streamed.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(streamed.getBody()).isEqualTo(vetList);
+	}
+
 	public static void main(String[] args) {
 		SpringApplication.run(PetClinicApplication.class, args);
 	}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+/**
+ * Declares the maximum number of SQL statements a Spring test method may issue, counted
+ * by Hibernate from the start to the end of the test method, {@code @BeforeEach} methods
+ * included. A test exceeding its budget fails, so that a fetch plan or a lazy load
+ * turning one query into one per row is caught. Budgets are meant to hold against the
+ * {@code db/scaled-data.sql} dataset, whatever its size.
+ * <p>
+ * Statements are counted when they are sent to the database: writes left in the
+ * persistence context of a test transaction, and reads served by a cache, are not
+ * counted.
+ *
+ * @see QueryBudgetExtension
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+@ExtendWith(QueryBudgetExtension.class)
+public @interface QueryBudget {
+
+	/**
+	 * The maximum number of statements.
+	 */
+	int value();
+
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ExtensionContext.Namespace;
+import org.junit.platform.commons.support.AnnotationSupport;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Enforces the {@link QueryBudget} of a test method, counting the statements prepared
+ * through the session factory statistics of the test application context. Statistics are
+ * switched on for the duration of the test if they are not already.
+ */
+class QueryBudgetExtension implements BeforeEachCallback, AfterEachCallback {
+
+	private static final Namespace NAMESPACE = Namespace.create(QueryBudgetExtension.class);
+
+	@Override
+	public void beforeEach(ExtensionContext context) {
+		Statistics statistics = SpringExtension.getApplicationContext(context)
+			.getBean(EntityManagerFactory.class)
+			.unwrap(SessionFactory.class)
+			.getStatistics();
+		boolean enabled = statistics.isStatisticsEnabled();
+		statistics.setStatisticsEnabled(true);
+		context.getStore(NAMESPACE)
+			.put(Count.class, new Count(statistics, enabled, statistics.getPrepareStatementCount()));
+	}
+
+	@Override
+	public void afterEach(ExtensionContext context) {
+		Count count = context.getStore(NAMESPACE).remove(Count.class, Count.class);
+		long statements = count.statistics().getPrepareStatementCount() - count.start();
+		count.statistics().setStatisticsEnabled(count.enabled());
+		AnnotationSupport.findAnnotation(context.getElement(), QueryBudget.class)
+			.ifPresent(budget -> assertThat(statements).as("SQL statements issued by %s", context.getDisplayName())
+				.isLessThanOrEqualTo(budget.value()));
+	}
+
+	private record Count(Statistics statistics, boolean enabled, long start) {
+	}
+
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.Sql.ExecutionPhase;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Query budgets of the pages, against the scaled dataset. Each page must issue the same
+ * number of statements whatever the number of owners, pets, visits and vets; only the
+ * pages showing the recent visits of an owner's pets cost one more statement per pet (3
+ * in the scaled dataset). Every cache is cleared before each test, so that the budgets
+ * hold for pages rendered cold rather than depending on the order of the tests.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Sql(scripts = "/db/scaled-data.sql", executionPhase = ExecutionPhase.BEFORE_TEST_CLASS)
+@Sql(scripts = "/db/scaled-data-cleanup.sql", executionPhase = ExecutionPhase.AFTER_TEST_CLASS)
+class QueryBudgetTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@BeforeEach
+	void clearCaches() {
+		this.cacheManager.getCacheNames().forEach((name) -> this.cacheManager.getCache(name).clear());
+		// the JPA eviction leaves the collection regions, whose entries would then be
+		// resolved entity by entity
+		this.entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+	}
+
+	@Test
+	@QueryBudget(2)
+	void findAllOwners() throws Exception {
+		this.mockMvc.perform(get("/owners?lastName=")).andExpect(status().isOk());
+	}
+
+	@Test
+	@QueryBudget(2)
+	void findOwnersByLastName() throws Exception {
+		this.mockMvc.perform(get("/owners?lastName=Scaled&page=3")).andExpect(status().isOk());
+	}
+
+	@Test
+	@QueryBudget(2)
+	void findOwnersByCursor() throws Exception {
+		this.mockMvc.perform(get("/owners?lastName=Scaled&cursor=")).andExpect(status().isOk());
+	}
+
+	@Test
+	@QueryBudget(5)
+	void showOwner() throws Exception {
+		this.mockMvc.perform(get("/owners/100001")).andExpect(status().isOk());
+	}
+
+	@Test
+	@QueryBudget(2)
+	void showVisitHistory() throws Exception {
+		this.mockMvc.perform(get("/owners/100001/pets/100001/visits")).andExpect(status().isOk());
+	}
+
+	@Test
+	@QueryBudget(4)
+	void initNewVisitForm() throws Exception {
+		this.mockMvc.perform(get("/owners/100001/pets/100001/visits/new")).andExpect(status().isOk());
+	}
+
+	@Test
+	@QueryBudget(3)
+	void showVetList() throws Exception {
+		this.mockMvc.perform(get("/vets.html?page=2")).andExpect(status().isOk());
+	}
+
+	@Test
+	@QueryBudget(1)
+	void showResourcesVetList() throws Exception {
+		this.mockMvc.perform(get("/vets")).andExpect(status().isOk());
+	}
+
+}
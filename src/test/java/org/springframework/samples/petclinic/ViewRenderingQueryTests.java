@@ -0,0 +1,139 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Renders every page and fails if a template triggers SQL, i.e. if a view reaches into
+ * the persistence context instead of the read model its controller built.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ViewRenderingQueryTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private RenderingStatements statements;
+
+	@BeforeEach
+	void reset() {
+		this.statements.clear();
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "/", "/owners/find", "/owners?lastName=", "/owners?lastName=Davis", "/owners/1",
+			"/owners/1/edit", "/owners/new", "/owners/1/pets/new", "/owners/1/pets/1/edit",
+			"/owners/6/pets/7/visits/new", "/owners/6/pets/7/visits", "/vets.html", "/vets" })
+	void pageRendersWithoutQueries(String page) throws Exception {
+		this.mockMvc.perform(get(page)).andExpect(status().isOk());
+		assertThat(this.statements.executed()).as("SQL executed while rendering %s", page).isEmpty();
+	}
+
+	/**
+	 * Records the statements prepared while a view renders, that is between the handler
+	 * returning and the request completing.
+	 */
+	static class RenderingStatements implements StatementInspector, HandlerInterceptor {
+
+		private final ThreadLocal<Boolean> rendering = ThreadLocal.withInitial(() -> false);
+
+		private final List<String> executed = new CopyOnWriteArrayList<>();
+
+		@Override
+		public String inspect(String sql) {
+			if (this.rendering.get()) {
+				this.executed.add(sql);
+			}
+			return sql;
+		}
+
+		@Override
+		public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+				ModelAndView modelAndView) {
+			this.rendering.set(true);
+		}
+
+		@Override
+		public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+				Exception ex) {
+			this.rendering.remove();
+		}
+
+		List<String> executed() {
+			return this.executed;
+		}
+
+		void clear() {
+			this.executed.clear();
+		}
+
+	}
+
+	@TestConfiguration(proxyBeanMethods = false)
+	static class RenderingStatementsConfiguration {
+
+		@Bean
+		RenderingStatements renderingStatements() {
+			return new RenderingStatements();
+		}
+
+		@Bean
+		HibernatePropertiesCustomizer renderingStatementInspector(RenderingStatements statements) {
+			return (properties) -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, statements);
+		}
+
+		@Bean
+		WebMvcConfigurer renderingInterceptor(RenderingStatements statements) {
+			return new WebMvcConfigurer() {
+				@Override
+				public void addInterceptors(InterceptorRegistry registry) {
+					registry.addInterceptor(statements);
+				}
+			};
+		}
+
+	}
+
+}
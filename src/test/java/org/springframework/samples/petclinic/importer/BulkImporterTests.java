@@ -0,0 +1,137 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.importer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.samples.petclinic.owner.Owner;
+import org.springframework.samples.petclinic.owner.OwnerRepository;
+import org.springframework.samples.petclinic.owner.OwnerSearchCache;
+import org.springframework.samples.petclinic.owner.Pet;
+import org.springframework.samples.petclinic.owner.PetTypeRegistry;
+import org.springframework.samples.petclinic.owner.VisitRepository;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration test of the {@link BulkImporter}. Chunks are written by the importer's own
+ * threads and transactions, so the tests run outside of a test transaction and each
+ * imports owners with a last name of its own.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@Import({ BulkImporter.class, ImportConfiguration.class, PetTypeRegistry.class, OwnerSearchCache.class,
+		NoOpCacheManager.class })
+@ImportAutoConfiguration({ JacksonAutoConfiguration.class, ValidationAutoConfiguration.class })
+@TestPropertySource(properties = { "petclinic.import.chunk-size=2", "petclinic.import.parallelism=2",
+		"spring.jpa.properties.hibernate.cache.use_second_level_cache=false" })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BulkImporterTests {
+
+	private static final String CSV = """
+			owner,first_name,last_name,address,city,telephone,pet,birth_date,type,visit_date,description
+			1,Ada,Csvimport,1 Main St.,Madison,6085551000,Tom,2020-01-01,cat,2021-02-03,rabies shot
+			1,Ada,Csvimport,1 Main St.,Madison,6085551000,Tom,2020-01-01,cat,2022-02-03,checkup
+			1,Ada,Csvimport,1 Main St.,Madison,6085551000,Rex,2019-05-06,dog,,
+			2,Bob,Csvimport,2 Main St.,Madison,6085552000,,,,,
+			""";
+
+	@Autowired
+	private BulkImporter importer;
+
+	@Autowired
+	private OwnerRepository owners;
+
+	@Autowired
+	private VisitRepository visits;
+
+	@Test
+	void shouldImportCsvOwnersWithPetsAndVisits() throws IOException {
+		ImportResult result = this.importer.importOwners("csv", input(CSV), ImportFormat.CSV);
+
+		assertThat(result.records()).isEqualTo(2);
+		assertThat(result.imported()).isEqualTo(2);
+		assertThat(result.rejected()).isZero();
+		assertThat(result.rows()).isEqualTo(6);
+
+		Owner ada = this.owners.findByLastName("Csvimport", Pageable.unpaged())
+			.filter(owner -> owner.getFirstName().equals("Ada"))
+			.stream()
+			.findFirst()
+			.orElseThrow();
+		Owner details = this.owners.findById(ada.getId());
+		assertThat(details.getPets()).extracting(Pet::getName).containsExactlyInAnyOrder("Tom", "Rex");
+		assertThat(details.getPet("Tom").getType().getName()).isEqualTo("cat");
+		assertThat(this.visits.findRecentByPetId(details.getPet("Tom").getId(), Limit.unlimited())).hasSize(2);
+		assertThat(this.visits.findRecentByPetId(details.getPet("Rex").getId(), Limit.unlimited())).isEmpty();
+	}
+
+	@Test
+	void shouldRejectInvalidOwners() throws IOException {
+		String ndjson = """
+				{"firstName":"Cy","lastName":"Jsonimport","address":"3 Main St.","city":"Madison","telephone":"6085553000","pets":[{"name":"Kit","birthDate":"2020-01-01","type":"cat","visits":[{"date":"2021-01-01","description":"spayed"}]}]}
+				{"firstName":"Di","lastName":"Jsonimport","address":"4 Main St.","city":"Madison","telephone":"call me"}
+				{"firstName":"Ed","lastName":"Jsonimport","address":"5 Main St.","city":"Madison","telephone":"6085555000","pets":[{"name":"Nemo","birthDate":"2020-01-01","type":"fish"}]}
+				""";
+
+		ImportResult result = this.importer.importOwners("ndjson", input(ndjson), ImportFormat.NDJSON);
+
+		assertThat(result.imported()).isEqualTo(1);
+		assertThat(result.rejected()).isEqualTo(2);
+		assertThat(result.rows()).isEqualTo(3);
+		assertThat(result.rejections())
+			.anySatisfy(rejection -> assertThat(rejection).startsWith("record 2: ").contains("telephone"));
+		assertThat(result.rejections())
+			.anySatisfy(rejection -> assertThat(rejection).startsWith("record 3: ").contains("type"));
+		assertThat(this.owners.countByLastNameStartingWith("Jsonimport")).isEqualTo(1);
+	}
+
+	@Test
+	void shouldSkipChunksWrittenByAnEarlierRun() throws IOException {
+		String csv = CSV.replace("Csvimport", "Resumed");
+		this.importer.importOwners("resume", input(csv), ImportFormat.CSV);
+
+		ImportResult result = this.importer.importOwners("resume", input(csv), ImportFormat.CSV);
+
+		assertThat(result.records()).isEqualTo(2);
+		assertThat(result.skipped()).isEqualTo(2);
+		assertThat(result.imported()).isZero();
+		assertThat(this.owners.countByLastNameStartingWith("Resumed")).isEqualTo(2);
+	}
+
+	private static InputStream input(String content) {
+		return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+	}
+
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.importer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.samples.petclinic.importer.ImportEndpoint.ImportJob;
+
+/**
+ * Tests for {@link ImportEndpoint}. Submitted imports are queued and only run when the
+ * executor gets to them.
+ */
+class ImportEndpointTests {
+
+	@TempDir
+	Path directory;
+
+	private final BulkImporter importer = mock(BulkImporter.class);
+
+	private final List<Runnable> queue = new ArrayList<>();
+
+	private ImportEndpoint endpoint;
+
+	@BeforeEach
+	void setup() throws IOException {
+		Files.writeString(this.directory.resolve("owners.csv"), "firstName,lastName\n");
+		this.endpoint = new ImportEndpoint(this.importer, new ImportProperties(100, 2, this.directory),
+				this.queue::add);
+	}
+
+	@Test
+	void shouldReturnQueuedJobWithoutImporting() {
+		ImportJob job = this.endpoint.importFile("owners.csv", null);
+		assertThat(job.state()).isEqualTo(ImportJob.State.QUEUED);
+		assertThat(job.job()).isEqualTo("owners.csv");
+		assertThat(this.endpoint.importJob(job.id())).isEqualTo(job);
+		verifyNoInteractions(this.importer);
+	}
+
+	@Test
+	void shouldRecordResultOfCompletedJob() throws IOException {
+		ImportResult result = new ImportResult("nightly", 1, 1, 0, 0, 1, 1, 1, List.of());
+		given(this.importer.importOwners(eq("nightly"), any(), eq(ImportFormat.CSV))).willReturn(result);
+		ImportJob job = this.endpoint.importFile("owners.csv", "nightly");
+		this.queue.forEach(Runnable::run);
+		ImportJob polled = this.endpoint.importJob(job.id());
+		assertThat(polled.state()).isEqualTo(ImportJob.State.COMPLETED);
+		assertThat(polled.result()).isEqualTo(result);
+		assertThat(this.endpoint.importJobs()).containsExactly(polled);
+	}
+
+	@Test
+	void shouldRecordErrorOfFailedJob() throws IOException {
+		given(this.importer.importOwners(any(), any(), any())).willThrow(new IOException("Disk gone"));
+		ImportJob job = this.endpoint.importFile("owners.csv", null);
+		this.queue.forEach(Runnable::run);
+		ImportJob polled = this.endpoint.importJob(job.id());
+		assertThat(polled.state()).isEqualTo(ImportJob.State.FAILED);
+		assertThat(polled.error()).isEqualTo("Disk gone");
+	}
+
+	@Test
+	void shouldRejectFileOutsideOfDirectory() {
+		assertThatExceptionOfType(InvalidEndpointRequestException.class)
+			.isThrownBy(() -> this.endpoint.importFile("../owners.csv", null));
+		assertThat(this.endpoint.importJobs()).isEmpty();
+	}
+
+	@Test
+	void shouldReturnNoJobForUnknownId() {
+		assertThat(this.endpoint.importJob("unknown")).isNull();
+	}
+
+}
@@ -24,13 +24,26 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
 import org.springframework.test.context.aot.DisabledInAotMode;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.greaterThan;
@@ -40,11 +53,15 @@ import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
@@ -54,6 +71,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  *
  * @author Colin But
  */
+@Import({ OwnerLoader.class, OwnerSearchCache.class, NoOpCacheManager.class, SimpleMeterRegistry.class })
 @WebMvcTest(OwnerController.class)
 @DisabledInNativeImage
 @DisabledInAotMode
@@ -67,6 +85,11 @@ class OwnerControllerTests {
 	@MockBean
 	private OwnerRepository owners;
 
+	@MockBean
+	private VisitRepository visits;
+
+	private final ProjectionFactory projections = new SpelAwareProxyProjectionFactory();
+
 	private Owner george() {
 		Owner george = new Owner();
 		george.setId(TEST_OWNER_ID);
@@ -86,19 +109,34 @@ class OwnerControllerTests {
 		return george;
 	}
 
+	private OwnerSummary summary(Owner owner) {
+		Map<String, Object> values = new HashMap<>();
+		values.put("id", owner.getId());
+		values.put("firstName", owner.getFirstName());
+		values.put("lastName", owner.getLastName());
+		values.put("address", owner.getAddress());
+		values.put("city", owner.getCity());
+		values.put("telephone", owner.getTelephone());
+		values.put("petNames", owner.getPets().isEmpty() ? null : "Max");
+		return this.projections.createProjection(OwnerSummary.class, values);
+	}
+
 	@BeforeEach
 	void setup() {
 
 		Owner george = george();
-		given(this.owners.findByLastName(eq("Franklin"), any(Pageable.class)))
-			.willReturn(new PageImpl<>(Lists.newArrayList(george)));
+		given(this.owners.findSummariesByLastName(eq("Franklin"), any(Pageable.class)))
+			.willReturn(new PageImpl<>(Lists.newArrayList(summary(george))));
 
 		given(this.owners.findAll(any(Pageable.class))).willReturn(new PageImpl<>(Lists.newArrayList(george)));
 
+		given(this.owners.findSummaryById(TEST_OWNER_ID)).willReturn(george);
 		given(this.owners.findById(TEST_OWNER_ID)).willReturn(george);
-		Visit visit = new Visit();
-		visit.setDate(LocalDate.now());
-		george.getPet("Max").getVisits().add(visit);
+		Map<String, Object> visit = new HashMap<>();
+		visit.put("id", 1);
+		visit.put("date", LocalDate.now());
+		given(this.visits.findRecentByPetId(eq(1), any(Limit.class)))
+			.willReturn(List.of(this.projections.createProjection(VisitSummary.class, visit)));
 
 	}
 
@@ -142,15 +180,15 @@ class OwnerControllerTests {
 
 	@Test
 	void testProcessFindFormSuccess() throws Exception {
-		Page<Owner> tasks = new PageImpl<>(Lists.newArrayList(george(), new Owner()));
-		Mockito.when(this.owners.findByLastName(anyString(), any(Pageable.class))).thenReturn(tasks);
+		Page<OwnerSummary> tasks = new PageImpl<>(Lists.newArrayList(summary(george()), summary(new Owner())));
+		Mockito.when(this.owners.findSummariesByLastName(anyString(), any(Pageable.class))).thenReturn(tasks);
 		mockMvc.perform(get("/owners?page=1")).andExpect(status().isOk()).andExpect(view().name("owners/ownersList"));
 	}
 
 	@Test
 	void testProcessFindFormByLastName() throws Exception {
-		Page<Owner> tasks = new PageImpl<>(Lists.newArrayList(george()));
-		Mockito.when(this.owners.findByLastName(eq("Franklin"), any(Pageable.class))).thenReturn(tasks);
+		Page<OwnerSummary> tasks = new PageImpl<>(Lists.newArrayList(summary(george())));
+		Mockito.when(this.owners.findSummariesByLastName(eq("Franklin"), any(Pageable.class))).thenReturn(tasks);
 		mockMvc.perform(get("/owners?page=1").param("lastName", "Franklin"))
 			.andExpect(status().is3xxRedirection())
 			.andExpect(view().name("redirect:/owners/" + TEST_OWNER_ID));
@@ -158,8 +196,8 @@ class OwnerControllerTests {
 
 	@Test
 	void testProcessFindFormNoOwnersFound() throws Exception {
-		Page<Owner> tasks = new PageImpl<>(Lists.newArrayList());
-		Mockito.when(this.owners.findByLastName(eq("Unknown Surname"), any(Pageable.class))).thenReturn(tasks);
+		Page<OwnerSummary> tasks = new PageImpl<>(Lists.newArrayList());
+		Mockito.when(this.owners.findSummariesByLastName(eq("Unknown Surname"), any(Pageable.class))).thenReturn(tasks);
 		mockMvc.perform(get("/owners?page=1").param("lastName", "Unknown Surname"))
 			.andExpect(status().isOk())
 			.andExpect(model().attributeHasFieldErrors("owner", "lastName"))
@@ -168,6 +206,48 @@ class OwnerControllerTests {
 
 	}
 
+	@Test
+	void testProcessFindFormByCursorFirstPage() throws Exception {
+		List<OwnerSummary> results = new ArrayList<>();
+		for (int id = 1; id <= 6; id++) {
+			Owner owner = george();
+			owner.setId(id);
+			results.add(summary(owner));
+		}
+		given(this.owners.findSummariesByLastNameAfter("", "", 0, Limit.of(6))).willReturn(results);
+		given(this.owners.countByLastNameStartingWith("")).willReturn(12L);
+		mockMvc.perform(get("/owners").param("cursor", ""))
+			.andExpect(status().isOk())
+			.andExpect(model().attribute("listOwners", hasSize(5)))
+			.andExpect(model().attribute("approximateTotal", 12L))
+			.andExpect(model().attributeExists("nextCursor"))
+			.andExpect(view().name("owners/ownersList"));
+	}
+
+	@Test
+	void testProcessFindFormByCursorNextPageDoesNotCount() throws Exception {
+		given(this.owners.findSummariesByLastNameAfter(eq("Franklin"), anyString(), anyInt(), any(Limit.class)))
+			.willReturn(Lists.newArrayList(summary(george())));
+		String cursor = OwnerSearchCursor.after(summary(george()), 6).encode();
+		mockMvc.perform(get("/owners").param("lastName", "Franklin").param("cursor", cursor))
+			.andExpect(status().isOk())
+			.andExpect(model().attribute("approximateTotal", 6L))
+			.andExpect(model().attributeDoesNotExist("nextCursor"))
+			.andExpect(view().name("owners/ownersList"));
+		verify(this.owners).findSummariesByLastNameAfter(eq("Franklin"), eq("Franklin"), eq(TEST_OWNER_ID),
+				any(Limit.class));
+		verify(this.owners, never()).countByLastNameStartingWith(anyString());
+	}
+
+	@Test
+	void testProcessFindFormByCursorSingleOwner() throws Exception {
+		given(this.owners.findSummariesByLastNameAfter(eq("Franklin"), anyString(), anyInt(), any(Limit.class)))
+			.willReturn(Lists.newArrayList(summary(george())));
+		mockMvc.perform(get("/owners").param("lastName", "Franklin").param("cursor", ""))
+			.andExpect(status().is3xxRedirection())
+			.andExpect(view().name("redirect:/owners/" + TEST_OWNER_ID));
+	}
+
 	@Test
 	void testInitUpdateOwnerForm() throws Exception {
 		mockMvc.perform(get("/owners/{ownerId}/edit", TEST_OWNER_ID))
@@ -229,4 +309,29 @@ class OwnerControllerTests {
 			.andExpect(view().name("owners/ownerDetails"));
 	}
 
+	@Test
+	void testShowOwnerNotModified() throws Exception {
+		Owner george = george();
+		ReflectionTestUtils.setField(george, "version", 3);
+		given(this.owners.findSummaryById(TEST_OWNER_ID)).willReturn(george);
+
+		mockMvc.perform(get("/owners/{ownerId}", TEST_OWNER_ID).locale(Locale.ENGLISH))
+			.andExpect(status().isOk())
+			.andExpect(header().string("ETag", "W/\"1-3-en\""));
+		mockMvc
+			.perform(get("/owners/{ownerId}", TEST_OWNER_ID).locale(Locale.ENGLISH)
+				.header("If-None-Match", "W/\"1-3-en\""))
+			.andExpect(status().isNotModified());
+		mockMvc
+			.perform(get("/owners/{ownerId}", TEST_OWNER_ID).locale(Locale.ENGLISH)
+				.header("If-None-Match", "W/\"1-2-en\""))
+			.andExpect(status().isOk());
+		mockMvc
+			.perform(get("/owners/{ownerId}", TEST_OWNER_ID).locale(Locale.GERMAN)
+				.header("If-None-Match", "W/\"1-3-en\""))
+			.andExpect(status().isOk())
+			.andExpect(header().string("ETag", "W/\"1-3-de\""));
+		verify(this.owners, Mockito.times(3)).findById(TEST_OWNER_ID);
+	}
+
 }
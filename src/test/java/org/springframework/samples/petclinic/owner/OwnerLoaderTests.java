@@ -0,0 +1,132 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledInNativeImage;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Test class for {@link OwnerLoader}
+ */
+@ExtendWith(MockitoExtension.class)
+@DisabledInNativeImage
+class OwnerLoaderTests {
+
+	private static final int TEST_OWNER_ID = 1;
+
+	@Mock
+	private OwnerRepository owners;
+
+	@Mock
+	private VisitRepository visits;
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	private OwnerLoader ownerLoader;
+
+	@BeforeEach
+	void setup() {
+		this.ownerLoader = new OwnerLoader(this.owners, this.visits, this.registry, 2);
+	}
+
+	@Test
+	void shouldLoadOwnerOncePerRequest() {
+		Owner owner = new Owner();
+		given(this.owners.findById(TEST_OWNER_ID)).willReturn(owner);
+
+		assertThat(this.ownerLoader.findById(TEST_OWNER_ID)).isSameAs(owner);
+		assertThat(this.ownerLoader.findById(TEST_OWNER_ID)).isSameAs(owner);
+
+		verify(this.owners, times(1)).findById(TEST_OWNER_ID);
+		assertThat(loads("hit")).isEqualTo(1);
+		assertThat(loads("miss")).isEqualTo(1);
+	}
+
+	@Test
+	void shouldServePoorerFetchPlanFromRicherOne() {
+		Owner owner = new Owner();
+		given(this.owners.findById(TEST_OWNER_ID)).willReturn(owner);
+
+		this.ownerLoader.findById(TEST_OWNER_ID);
+
+		assertThat(this.ownerLoader.findSummaryById(TEST_OWNER_ID)).isSameAs(owner);
+		assertThat(this.ownerLoader.findRecentDetailsById(TEST_OWNER_ID).getId()).isEqualTo(owner.getId());
+		assertThat(loads("hit")).isEqualTo(2);
+	}
+
+	@Test
+	void shouldReloadForRicherFetchPlan() {
+		Owner summary = new Owner();
+		Owner withPets = new Owner();
+		given(this.owners.findSummaryById(TEST_OWNER_ID)).willReturn(summary);
+		given(this.owners.findById(TEST_OWNER_ID)).willReturn(withPets);
+
+		this.ownerLoader.findSummaryById(TEST_OWNER_ID);
+
+		assertThat(this.ownerLoader.findById(TEST_OWNER_ID)).isSameAs(withPets);
+		assertThat(this.ownerLoader.findSummaryById(TEST_OWNER_ID)).isSameAs(withPets);
+		assertThat(loads("miss")).isEqualTo(2);
+	}
+
+	@Test
+	void shouldLoadMostRecentVisitsOfEachPet() {
+		Owner owner = new Owner();
+		Pet pet = new Pet();
+		owner.addPet(pet);
+		pet.setId(1);
+		given(this.owners.findById(TEST_OWNER_ID)).willReturn(owner);
+		given(this.visits.findRecentByPetId(1, Limit.of(3))).willReturn(List.of(visit(3, LocalDate.of(2024, 1, 3)),
+				visit(2, LocalDate.of(2024, 1, 2)), visit(1, LocalDate.of(2024, 1, 1))));
+
+		OwnerDetails.PetDetails details = this.ownerLoader.findRecentDetailsById(TEST_OWNER_ID).getPet(1);
+
+		assertThat(details.getVisits()).extracting(OwnerDetails.VisitDetails::getDate)
+			.containsExactly(LocalDate.of(2024, 1, 2), LocalDate.of(2024, 1, 3));
+		VisitHistoryCursor older = VisitHistoryCursor.decode(details.getOlderVisits());
+		assertThat(older.getId()).isEqualTo(2);
+		assertThat(older.getDate()).isEqualTo(LocalDate.of(2024, 1, 2));
+	}
+
+	private VisitSummary visit(int id, LocalDate date) {
+		Map<String, Object> values = new HashMap<>();
+		values.put("id", id);
+		values.put("date", date);
+		return new SpelAwareProxyProjectionFactory().createProjection(VisitSummary.class, values);
+	}
+
+	private double loads(String result) {
+		return this.registry.get("petclinic.owner.loads").tag("result", result).counter().count();
+	}
+
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Test class for {@link OwnerSearchCache}
+ */
+@ExtendWith(MockitoExtension.class)
+class OwnerSearchCacheTests {
+
+	private static final Pageable FIRST_PAGE = PageRequest.of(0, 5);
+
+	@Mock
+	private OwnerRepository owners;
+
+	private OwnerSearchCache ownerSearches;
+
+	@BeforeEach
+	void setup() {
+		this.ownerSearches = new OwnerSearchCache(this.owners, new CaffeineCacheManager(OwnerSearchCache.CACHE_NAME));
+		given(this.owners.findSummariesByLastName(anyString(), any(Pageable.class))).willReturn(Page.empty());
+	}
+
+	@Test
+	void shouldCacheSearchesByNormalizedPrefixAndPage() {
+		this.ownerSearches.findSummariesByLastName("Dav", FIRST_PAGE);
+		this.ownerSearches.findSummariesByLastName(" Dav ", FIRST_PAGE);
+		this.ownerSearches.findSummariesByLastName("Dav", PageRequest.of(1, 5));
+
+		verify(this.owners, times(1)).findSummariesByLastName("Dav", FIRST_PAGE);
+		verify(this.owners, times(1)).findSummariesByLastName("Dav", PageRequest.of(1, 5));
+	}
+
+	@Test
+	void shouldEvictOnlySearchesMatchingTheLastName() {
+		this.ownerSearches.findSummariesByLastName("", FIRST_PAGE);
+		this.ownerSearches.findSummariesByLastName("dav", FIRST_PAGE);
+		this.ownerSearches.findSummariesByLastName("Es", FIRST_PAGE);
+
+		this.ownerSearches.evict("Davis", null);
+		this.ownerSearches.findSummariesByLastName("", FIRST_PAGE);
+		this.ownerSearches.findSummariesByLastName("dav", FIRST_PAGE);
+		this.ownerSearches.findSummariesByLastName("Es", FIRST_PAGE);
+
+		verify(this.owners, times(2)).findSummariesByLastName("", FIRST_PAGE);
+		verify(this.owners, times(2)).findSummariesByLastName("dav", FIRST_PAGE);
+		verify(this.owners, times(1)).findSummariesByLastName("Es", FIRST_PAGE);
+	}
+
+	@Test
+	void shouldNotCacheSearchesWithWildcards() {
+		assertThat(this.ownerSearches.findSummariesByLastName("D%s", FIRST_PAGE)).isEmpty();
+		this.ownerSearches.findSummariesByLastName("D%s", FIRST_PAGE);
+
+		verify(this.owners, times(2)).findSummariesByLastName("D%s", FIRST_PAGE);
+	}
+
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.owner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledInNativeImage;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+/**
+ * Test class for {@link PetTypeRegistry}
+ */
+@ExtendWith(MockitoExtension.class)
+@DisabledInNativeImage
+class PetTypeRegistryTests {
+
+	@Mock
+	private OwnerRepository owners;
+
+	private PetTypeRegistry registry;
+
+	@BeforeEach
+	void setup() {
+		this.registry = new PetTypeRegistry(this.owners, Duration.ofMinutes(10));
+	}
+
+	@Test
+	void shouldLoadPetTypesOnce() {
+		given(this.owners.findPetTypes()).willReturn(List.of(petType(1, "bird"), petType(2, "cat")));
+
+		assertThat(this.registry.getPetTypes()).extracting(PetType::getName).containsExactly("bird", "cat");
+		assertThat(this.registry.findByName("cat").getId()).isEqualTo(2);
+		assertThat(this.registry.findById(1).getName()).isEqualTo("bird");
+		assertThat(this.registry.findByName("fish")).isNull();
+
+		verify(this.owners, times(1)).findPetTypes();
+	}
+
+	@Test
+	void shouldReloadPetTypesWhenInvalidated() {
+		given(this.owners.findPetTypes()).willReturn(List.of(petType(1, "bird")),
+				List.of(petType(1, "bird"), petType(7, "fish")));
+
+		assertThat(this.registry.findByName("fish")).isNull();
+		this.registry.invalidate();
+		assertThat(this.registry.findByName("fish").getId()).isEqualTo(7);
+	}
+
+	@Test
+	void shouldReloadPetTypesWhenExpired() {
+		this.registry = new PetTypeRegistry(this.owners, Duration.ofNanos(1));
+		given(this.owners.findPetTypes()).willReturn(List.of(petType(1, "bird")));
+
+		this.registry.getPetTypes();
+		this.registry.getPetTypes();
+
+		verify(this.owners, times(2)).findPetTypes();
+	}
+
+	private PetType petType(int id, String name) {
+		PetType petType = new PetType();
+		petType.setId(id);
+		petType.setName(name);
+		return petType;
+	}
+
+}
@@ -16,27 +16,45 @@
 
 package org.springframework.samples.petclinic.owner;
 
+import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
 
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.condition.DisabledInNativeImage;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
 import org.springframework.test.context.aot.DisabledInAotMode;
 import org.springframework.test.web.servlet.MockMvc;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 /**
  * Test class for {@link VisitController}
  *
  * @author Colin But
  */
+@Import({ OwnerLoader.class, SimpleMeterRegistry.class })
 @WebMvcTest(VisitController.class)
 @DisabledInNativeImage
 @DisabledInAotMode
@@ -52,6 +70,9 @@ class VisitControllerTests {
 	@MockBean
 	private OwnerRepository owners;
 
+	@MockBean
+	private VisitRepository visits;
+
 	@BeforeEach
 	void init() {
 		Owner owner = new Owner();
@@ -59,6 +80,7 @@ class VisitControllerTests {
 		owner.addPet(pet);
 		pet.setId(TEST_PET_ID);
 		given(this.owners.findById(TEST_OWNER_ID)).willReturn(owner);
+		given(this.visits.addVisit(eq(TEST_OWNER_ID), eq(TEST_PET_ID), any(Visit.class))).willReturn(1);
 	}
 
 	@Test
@@ -76,6 +98,7 @@ class VisitControllerTests {
 				.param("description", "Visit Description"))
 			.andExpect(status().is3xxRedirection())
 			.andExpect(view().name("redirect:/owners/{ownerId}"));
+		verify(this.owners, never()).findById(anyInt());
 	}
 
 	@Test
@@ -88,4 +111,36 @@ class VisitControllerTests {
 			.andExpect(view().name("pets/createOrUpdateVisitForm"));
 	}
 
+	@Test
+	void testShowVisitHistory() throws Exception {
+		List<VisitSummary> visits = IntStream.rangeClosed(1, 6)
+			.mapToObj(day -> visit(10 - day, LocalDate.of(2024, 1, 10 - day)))
+			.toList();
+		given(this.visits.findRecentByPetId(eq(TEST_PET_ID), any(Limit.class))).willReturn(visits);
+		given(this.visits.findOlderByPetId(TEST_PET_ID, LocalDate.of(2024, 1, 5), 5, Limit.of(6)))
+			.willReturn(visits.subList(5, 6));
+
+		String older = (String) mockMvc
+			.perform(get("/owners/{ownerId}/pets/{petId}/visits", TEST_OWNER_ID, TEST_PET_ID))
+			.andExpect(status().isOk())
+			.andExpect(model().attribute("visits", hasSize(5)))
+			.andExpect(view().name("pets/visitHistory"))
+			.andReturn()
+			.getModelAndView()
+			.getModel()
+			.get("olderVisits");
+		mockMvc.perform(get("/owners/{ownerId}/pets/{petId}/visits", TEST_OWNER_ID, TEST_PET_ID).param("before", older))
+			.andExpect(status().isOk())
+			.andExpect(model().attribute("visits", hasSize(1)))
+			.andExpect(model().attributeDoesNotExist("olderVisits"));
+	}
+
+	private VisitSummary visit(int id, LocalDate date) {
+		Map<String, Object> values = new HashMap<>();
+		values.put("id", id);
+		values.put("date", date);
+		values.put("description", "visit " + id);
+		return new SpelAwareProxyProjectionFactory().createProjection(VisitSummary.class, values);
+	}
+
 }
@@ -20,25 +20,37 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import java.time.LocalDate;
 import java.util.Collection;
+import java.util.List;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.samples.petclinic.QueryBudget;
 import org.springframework.samples.petclinic.owner.Owner;
 import org.springframework.samples.petclinic.owner.OwnerRepository;
+import org.springframework.samples.petclinic.owner.OwnerSummary;
 import org.springframework.samples.petclinic.owner.Pet;
 import org.springframework.samples.petclinic.owner.PetType;
 import org.springframework.samples.petclinic.owner.Visit;
+import org.springframework.samples.petclinic.owner.VisitRepository;
+import org.springframework.samples.petclinic.owner.VisitSummary;
 import org.springframework.samples.petclinic.vet.Vet;
 import org.springframework.samples.petclinic.vet.VetRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.test.context.jdbc.Sql;
 import org.springframework.transaction.annotation.Transactional;
 
+import jakarta.persistence.Persistence;
+import jakarta.persistence.PersistenceUtil;
+
 /**
  * Integration test of the Service and the Repository layer.
  * <p>
@@ -67,7 +79,10 @@ import org.springframework.transaction.annotation.Transactional;
  * @author Michael Isvy
  * @author Dave Syer
  */
-@DataJpaTest(includeFilters = @ComponentScan.Filter(Service.class))
+// The slice leaves out the cache configuration, without which Hibernate would cache in
+// the JCache manager shared by every context of the JVM:
+@DataJpaTest(includeFilters = @ComponentScan.Filter(Service.class),
+		properties = "spring.jpa.properties.hibernate.cache.use_second_level_cache=false")
 // Ensure that if the mysql profile is active we connect to the real database:
 @AutoConfigureTestDatabase(replace = Replace.NONE)
 // @TestPropertySource("/application-postgres.properties")
@@ -79,6 +94,12 @@ class ClinicServiceTests {
 	@Autowired
 	protected VetRepository vets;
 
+	@Autowired
+	protected VisitRepository visits;
+
+	@Autowired
+	protected TestEntityManager entityManager;
+
 	Pageable pageable;
 
 	@Test
@@ -90,6 +111,33 @@ class ClinicServiceTests {
 		assertThat(owners).isEmpty();
 	}
 
+	@Test
+	void shouldFindOwnerSummariesByLastName() {
+		Page<OwnerSummary> owners = this.owners.findSummariesByLastName("", PageRequest.of(0, 10));
+		assertThat(owners.getTotalElements()).isEqualTo(10);
+		assertThat(owners.getContent()).extracting(OwnerSummary::getLastName).isSorted();
+
+		OwnerSummary coleman = this.owners.findSummariesByLastName("Coleman", PageRequest.of(0, 5)).getContent().get(0);
+		assertThat(coleman.getFirstName()).isEqualTo("Jean");
+		assertThat(coleman.getPetNames()).isEqualTo("Max, Samantha");
+
+		assertThat(this.owners.findSummariesByLastName("Daviss", PageRequest.of(0, 5))).isEmpty();
+	}
+
+	@Test
+	void shouldSeekOwnerSummariesByLastNameKeyset() {
+		List<OwnerSummary> first = this.owners.findSummariesByLastNameAfter("Da", "", 0, Limit.of(1));
+		assertThat(first).hasSize(1);
+
+		List<OwnerSummary> second = this.owners.findSummariesByLastNameAfter("Da", first.get(0).getLastName(),
+				first.get(0).getId(), Limit.of(2));
+		assertThat(second).hasSize(1);
+		assertThat(second.get(0).getLastName()).isEqualTo("Davis");
+		assertThat(second.get(0).getId()).isGreaterThan(first.get(0).getId());
+
+		assertThat(this.owners.countByLastNameStartingWith("Da")).isEqualTo(2);
+	}
+
 	@Test
 	void shouldFindSingleOwnerWithPet() {
 		Owner owner = this.owners.findById(1);
@@ -99,6 +147,18 @@ class ClinicServiceTests {
 		assertThat(owner.getPets().get(0).getType().getName()).isEqualTo("cat");
 	}
 
+	@Test
+	void shouldLoadOnlyTheRequestedFetchPlan() {
+		PersistenceUtil persistence = Persistence.getPersistenceUtil();
+
+		Owner summary = this.owners.findSummaryById(1);
+		assertThat(persistence.isLoaded(summary, "pets")).isFalse();
+
+		Owner withPets = this.owners.findById(3);
+		assertThat(persistence.isLoaded(withPets, "pets")).isTrue();
+		assertThat(withPets.getPets()).noneMatch(pet -> persistence.isLoaded(pet, "visits"));
+	}
+
 	@Test
 	@Transactional
 	void shouldInsertOwner() {
@@ -118,6 +178,29 @@ class ClinicServiceTests {
 		assertThat(owners.getTotalElements()).isEqualTo(found + 1);
 	}
 
+	@Test
+	@Transactional
+	void shouldAllocateOwnerIdsInBlocks() {
+		Owner first = new Owner();
+		first.setFirstName("Sam");
+		first.setLastName("Schultz");
+		first.setAddress("4, Evans Street");
+		first.setCity("Wollongong");
+		first.setTelephone("4444444444");
+		Owner second = new Owner();
+		second.setFirstName("Alex");
+		second.setLastName("Schultz");
+		second.setAddress("4, Evans Street");
+		second.setCity("Wollongong");
+		second.setTelephone("4444444444");
+		this.owners.save(first);
+		this.owners.save(second);
+
+		// both ids come from the same block, past the seed data
+		assertThat(first.getId()).isGreaterThan(10);
+		assertThat(second.getId()).isEqualTo(first.getId() + 1);
+	}
+
 	@Test
 	@Transactional
 	void shouldUpdateOwner() {
@@ -212,6 +295,63 @@ class ClinicServiceTests {
 			.allMatch(value -> value.getId() != null);
 	}
 
+	@Test
+	void shouldAppendVisitForOwnedPet() {
+		Visit visit = new Visit();
+		visit.setDescription("test");
+
+		assertThat(this.visits.addVisit(6, 7, visit)).isEqualTo(1);
+		assertThat(visit.getPet().getName()).isEqualTo("Samantha");
+		assertThat(this.visits.addVisit(1, 7, visit)).isZero();
+
+		assertThat(this.visits.findRecentByPetId(7, Limit.of(10))).extracting(VisitSummary::getDescription)
+			.containsOnlyOnce("test");
+	}
+
+	@Test
+	void shouldPageVisitHistoryFromMostRecent() {
+		Visit visit = new Visit();
+		visit.setDescription("older");
+		visit.setDate(LocalDate.of(2000, 1, 1));
+		this.visits.addVisit(6, 7, visit);
+
+		List<VisitSummary> recent = this.visits.findRecentByPetId(7, Limit.of(2));
+		assertThat(recent).extracting(VisitSummary::getId).containsExactly(4, 1);
+
+		VisitSummary oldest = recent.get(1);
+		assertThat(this.visits.findOlderByPetId(7, oldest.getDate(), oldest.getId(), Limit.of(2)))
+			.extracting(VisitSummary::getDescription)
+			.containsExactly("older");
+	}
+
+	@Test
+	void shouldIncrementOwnerVersionWhenPetsOrVisitsChange() {
+		int version = this.owners.findSummaryById(6).getVersion();
+		Visit visit = new Visit();
+		visit.setDescription("test");
+
+		this.visits.addVisit(6, 7, visit);
+		assertThat(this.owners.incrementVersion(6)).isEqualTo(1);
+
+		this.entityManager.clear();
+		assertThat(this.owners.findSummaryById(6).getVersion()).isEqualTo(version + 2);
+	}
+
+	@Test
+	void shouldIncrementOwnerVersionOnceWhenPetIsAdded() {
+		Owner owner6 = this.owners.findById(6);
+		int version = owner6.getVersion();
+		Pet pet = new Pet();
+		pet.setName("bowser");
+		pet.setType(EntityUtils.getById(this.owners.findPetTypes(), PetType.class, 2));
+		owner6.addPet(pet);
+
+		this.owners.savePets(owner6);
+
+		this.entityManager.clear();
+		assertThat(this.owners.findSummaryById(6).getVersion()).isEqualTo(version + 1);
+	}
+
 	@Test
 	void shouldFindVisitsByPetId() {
 		Owner owner6 = this.owners.findById(6);
@@ -225,4 +365,41 @@ class ClinicServiceTests {
 			.isNotNull();
 	}
 
+	@Test
+	@QueryBudget(2)
+	@Sql("/db/scaled-data.sql")
+	void shouldPageOwnerSummariesWithinQueryBudget() {
+		Page<OwnerSummary> page = this.owners.findSummariesByLastName("Scaled", PageRequest.of(3, 5));
+		assertThat(page.getTotalElements()).isEqualTo(300);
+		assertThat(page.getContent()).hasSize(5).allMatch(owner -> owner.getPetNames().contains(","));
+	}
+
+	@Test
+	@QueryBudget(4)
+	@Sql("/db/scaled-data.sql")
+	void shouldLoadOwnerDetailsWithinQueryBudget() {
+		Owner owner = this.owners.findById(100001);
+		assertThat(owner.getPets()).hasSize(3)
+			.allSatisfy(pet -> assertThat(pet.getType().getName()).isNotNull())
+			.allSatisfy(pet -> assertThat(this.visits.findRecentByPetId(pet.getId(), Limit.of(6))).hasSize(6));
+	}
+
+	@Test
+	@QueryBudget(1)
+	@Sql("/db/scaled-data.sql")
+	void shouldLoadAllVetsWithinQueryBudget() {
+		Collection<Vet> vets = this.vets.findAll();
+		assertThat(vets).hasSizeGreaterThan(100);
+		vets.forEach(vet -> assertThat(vet.getNrOfSpecialties()).isNotNegative());
+	}
+
+	@Test
+	@QueryBudget(3)
+	@Sql("/db/scaled-data.sql")
+	void shouldPageVetsWithinQueryBudget() {
+		Page<Vet> page = this.vets.findAll(PageRequest.of(2, 5));
+		assertThat(page.getContent()).hasSize(5);
+		page.forEach(vet -> assertThat(vet.getNrOfSpecialties()).isNotNegative());
+	}
+
 }
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.system;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.cache.CacheAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Policy.Eviction;
+
+/**
+ * Test class for {@link CacheConfiguration}
+ */
+class CacheConfigurationTests {
+
+	private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+		.withConfiguration(AutoConfigurations.of(CacheAutoConfiguration.class))
+		.withUserConfiguration(CacheConfiguration.class)
+		.withPropertyValues("spring.cache.type=caffeine", "petclinic.cache.regions.vets.maximum-size=1",
+				"petclinic.cache.regions.vets.expire-after-write=10m",
+				"petclinic.cache.regions.vet-pages.maximum-weight=3");
+
+	@Test
+	void shouldCreateOneBoundedCachePerRegion() {
+		this.contextRunner.run(context -> {
+			CacheManager cacheManager = context.getBean(CacheManager.class);
+			assertThat(cacheManager.getCacheNames()).contains("vets", "vet-pages");
+
+			Cache<Object, Object> vets = nativeCache(cacheManager, "vets");
+			assertThat(vets.policy().eviction()).map(Eviction::getMaximum).contains(1L);
+			assertThat(vets.policy().expireAfterWrite()).isPresent();
+			assertThat(vets.policy().isRecordingStats()).isTrue();
+		});
+	}
+
+	@Test
+	void shouldWeighCachedCollectionsByElementCount() {
+		this.contextRunner.run(context -> {
+			Cache<Object, Object> pages = nativeCache(context.getBean(CacheManager.class), "vet-pages");
+			pages.put("first", List.of("a", "b"));
+			pages.put("second", List.of("c", "d"));
+			pages.cleanUp();
+			assertThat(pages.policy().eviction().orElseThrow().weightedSize().getAsLong()).isLessThanOrEqualTo(3);
+		});
+	}
+
+	private Cache<Object, Object> nativeCache(CacheManager cacheManager, String name) {
+		return ((CaffeineCache) cacheManager.getCache(name)).getNativeCache();
+	}
+
+}
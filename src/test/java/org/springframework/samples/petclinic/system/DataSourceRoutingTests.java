@@ -0,0 +1,145 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasProperty;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.samples.petclinic.PetClinicApplication;
+import org.springframework.samples.petclinic.owner.Owner;
+import org.springframework.samples.petclinic.owner.OwnerRepository;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import jakarta.servlet.http.Cookie;
+
+/**
+ * Integration tests of the read/write splitting, with a second H2 database standing in
+ * for a replica that never catches up with the primary.
+ */
+@SpringBootTest(classes = PetClinicApplication.class,
+		properties = "petclinic.datasource.replicas[0].url=jdbc:h2:mem:petclinic-replica")
+@AutoConfigureMockMvc
+class DataSourceRoutingTests {
+
+	@Autowired
+	private OwnerRepository owners;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	@Qualifier("primaryDataSource")
+	private DataSource primaryDataSource;
+
+	private JdbcTemplate primary;
+
+	@BeforeEach
+	void setup() {
+		this.primary = new JdbcTemplate(this.primaryDataSource);
+	}
+
+	@Test
+	void readOnlyTransactionsRunOnReplica() {
+		this.primary.update("UPDATE owners SET first_name = 'Changed' WHERE id = 3");
+
+		assertThat(this.owners.findSummaryById(3).getFirstName()).isEqualTo("Eduardo");
+	}
+
+	@Test
+	void writesRunOnPrimary() {
+		Owner owner = this.owners.findSummaryById(4);
+		owner.setFirstName("Changed");
+		this.owners.save(owner);
+
+		assertThat(this.primary.queryForObject("SELECT first_name FROM owners WHERE id = 4", String.class))
+			.isEqualTo("Changed");
+		assertThat(this.owners.findSummaryById(4).getFirstName()).isEqualTo("Harold");
+	}
+
+	@Test
+	void clientReadsItsOwnWrites() throws Exception {
+		Cookie cookie = this.mockMvc
+			.perform(post("/owners/{ownerId}/edit", 2).param("firstName", "Changed")
+				.param("lastName", "Davis")
+				.param("address", "638 Cardinal Ave.")
+				.param("city", "Sun Prairie")
+				.param("telephone", "6085551749"))
+			.andExpect(status().is3xxRedirection())
+			.andReturn()
+			.getResponse()
+			.getCookie(ReadYourWritesFilter.COOKIE_NAME);
+		assertThat(cookie).isNotNull();
+
+		this.mockMvc.perform(get("/owners/{ownerId}", 2).cookie(cookie))
+			.andExpect(model().attribute("owner", hasProperty("firstName", is("Changed"))));
+		this.mockMvc.perform(get("/owners/{ownerId}", 2))
+			.andExpect(model().attribute("owner", hasProperty("firstName", is("Betty"))));
+	}
+
+	@Test
+	void tracedStatementsAreRecordedOnceWhateverTheRoute(@Autowired DataSource dataSource) throws SQLException {
+		assertThat(dataSource).isInstanceOf(LazyConnectionDataSourceProxy.class);
+		assertThat(this.primaryDataSource).isInstanceOf(HikariDataSource.class);
+
+		assertThat(trace(dataSource, false)).isEqualTo(1);
+		assertThat(trace(dataSource, true)).isEqualTo(1);
+		ReplicaDataSource.pinToPrimary();
+		try {
+			assertThat(trace(dataSource, true)).isEqualTo(1);
+		}
+		finally {
+			ReplicaDataSource.unpin();
+		}
+	}
+
+	private int trace(DataSource dataSource, boolean readOnly) throws SQLException {
+		RequestTrace trace;
+		RequestTrace.begin(10);
+		try (Connection connection = dataSource.getConnection()) {
+			connection.setReadOnly(readOnly);
+			try (Statement statement = connection.createStatement()) {
+				statement.execute("SELECT 1");
+			}
+		}
+		finally {
+			trace = RequestTrace.end();
+		}
+		return trace.getStatementCount();
+	}
+
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.system;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.samples.petclinic.PetClinicApplication;
+import org.springframework.samples.petclinic.vet.Vet;
+import org.springframework.samples.petclinic.vet.VetRepository;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Integration tests of the {@link FragmentCacheDialect}.
+ */
+@SpringBootTest(classes = PetClinicApplication.class)
+@AutoConfigureMockMvc
+class FragmentCacheTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	@Autowired
+	private VetRepository vets;
+
+	private Cache fragments;
+
+	@BeforeEach
+	void setup() {
+		this.fragments = this.cacheManager.getCache(FragmentCacheDialect.CACHE_NAME);
+		this.fragments.clear();
+	}
+
+	@Test
+	void shouldRenderPagesFromCachedFragments() throws Exception {
+		String rendered = render("/vets.html");
+
+		assertThat(nativeCache().estimatedSize()).isEqualTo(4);
+		assertThat(render("/vets.html")).isEqualTo(rendered)
+			.containsOnlyOnce("<nav ")
+			.containsOnlyOnce("<table id=\"vets\"")
+			.contains("<title>PetClinic", "/resources/images/spring-logo-")
+			.doesNotContain("pc:cache", "th:block");
+		assertThat(nativeCache().estimatedSize()).isEqualTo(4);
+	}
+
+	@Test
+	void shouldCacheNavbarPerActiveMenu() throws Exception {
+		assertThat(render("/vets.html")).contains("class=\"nav-link active\" href=\"/vets.html\"");
+		assertThat(render("/owners/find")).contains("class=\"nav-link active\" href=\"/owners/find\"")
+			.doesNotContain("class=\"nav-link active\" href=\"/vets.html\"");
+	}
+
+	@Test
+	@DirtiesContext
+	void shouldRenderRosterAgainOnceChanged() throws Exception {
+		assertThat(render("/vets.html")).contains("James Carter");
+
+		Vet carter = this.vets.findAll().stream().filter((vet) -> vet.getId() == 1).findFirst().orElseThrow();
+		carter.setFirstName("Jim");
+		this.vets.save(carter);
+
+		assertThat(render("/vets.html")).contains("Jim Carter").doesNotContain("James Carter");
+	}
+
+	private String render(String uri) throws Exception {
+		return this.mockMvc.perform(get(uri)).andReturn().getResponse().getContentAsString();
+	}
+
+	private com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache() {
+		return (com.github.benmanes.caffeine.cache.Cache<?, ?>) this.fragments.getNativeCache();
+	}
+
+}
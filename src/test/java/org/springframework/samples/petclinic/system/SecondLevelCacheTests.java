@@ -0,0 +1,119 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.system;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.samples.petclinic.PetClinicApplication;
+import org.springframework.samples.petclinic.vet.Specialty;
+import org.springframework.samples.petclinic.vet.Vet;
+import org.springframework.samples.petclinic.vet.VetRepository;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Integration test of the second-level cache set up by {@link CacheConfiguration}. Each
+ * entity is loaded by an entity manager of its own, so that nothing is served from the
+ * persistence context.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@ContextConfiguration(classes = PetClinicApplication.class)
+@Import(CacheConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SecondLevelCacheTests {
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private MeterBinder secondLevelCacheMetrics;
+
+	@Autowired
+	private VetRepository vets;
+
+	@Test
+	void shouldLoadVetsAndTheirSpecialtiesFromTheCache() {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		this.secondLevelCacheMetrics.bindTo(registry);
+		double vetHits = hits(registry, "vet-entities");
+		double specialtiesHits = hits(registry, "vet-specialties");
+
+		Vet vet = find(Vet.class, 3);
+		Vet cached = find(Vet.class, 3);
+
+		assertThat(cached).isNotSameAs(vet);
+		assertThat(cached.getSpecialties()).extracting(Specialty::getName).containsExactly("dentistry", "surgery");
+		assertThat(hits(registry, "vet-entities")).isEqualTo(vetHits + 1);
+		assertThat(hits(registry, "vet-specialties")).isEqualTo(specialtiesHits + 1);
+	}
+
+	@Test
+	void shouldEvictSpecialtiesWhenRenamed() {
+		assertThat(find(Specialty.class, 1).getName()).isEqualTo("radiology");
+		this.vets.renameSpecialty(1, "imaging");
+		try {
+			assertThat(find(Specialty.class, 1).getName()).isEqualTo("imaging");
+		}
+		finally {
+			this.vets.renameSpecialty(1, "radiology");
+		}
+	}
+
+	private <T> T find(Class<T> type, int id) {
+		EntityManager entityManager = this.entityManagerFactory.createEntityManager();
+		try {
+			return entityManager.find(type, id);
+		}
+		finally {
+			entityManager.close();
+		}
+	}
+
+	private double hits(SimpleMeterRegistry registry, String region) {
+		return registry.get("cache.gets").tags("cache", region, "result", "hit").functionCounter().count();
+	}
+
+	@Nested
+	@TestPropertySource(properties = "spring.jpa.properties.hibernate.cache.use_second_level_cache=false")
+	class TurnedOff {
+
+		@Test
+		void shouldNotCacheEntities(@Autowired EntityManagerFactory entityManagerFactory) {
+			SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+			assertThat(sessionFactory.getSessionFactoryOptions().isSecondLevelCacheEnabled()).isFalse();
+			sessionFactory.inTransaction(session -> session.find(Vet.class, 3));
+			assertThat(sessionFactory.getCache().containsEntity(Vet.class, 3)).isFalse();
+		}
+
+	}
+
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.system;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.startsWith;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.samples.petclinic.PetClinicApplication;
+import org.springframework.samples.petclinic.system.SlowRequestLog.SlowRequest;
+import org.springframework.samples.petclinic.system.SlowRequestLog.SqlStatement;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Integration tests of the slow request log, with every request and statement deemed
+ * slow, bind values shown and the endpoint exposed.
+ */
+@SpringBootTest(classes = PetClinicApplication.class,
+		properties = { "petclinic.slow-requests.threshold=0ms", "petclinic.slow-requests.explain-threshold=0ms",
+				"petclinic.slow-requests.capacity=2", "petclinic.slow-requests.show-binds=true",
+				"management.endpoints.web.exposure.exclude=" })
+@AutoConfigureMockMvc
+class SlowRequestTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private SlowRequestLog log;
+
+	@BeforeEach
+	void setup() {
+		this.log.clear();
+	}
+
+	@Test
+	void shouldLogStatementsWithBindsAndPlans() throws Exception {
+		this.mockMvc.perform(get("/owners/{ownerId}", 6)).andExpect(status().isOk());
+
+		assertThat(this.log.getRequests()).singleElement().satisfies((request) -> {
+			assertThat(request.method()).isEqualTo("GET");
+			assertThat(request.path()).isEqualTo("/owners/6");
+			assertThat(request.totalMillis()).isGreaterThanOrEqualTo(request.databaseMillis())
+				.isGreaterThanOrEqualTo(request.viewMillis());
+			assertThat(request.statementCount()).isEqualTo(request.statements().size()).isPositive();
+			SqlStatement owner = request.statements().get(0);
+			assertThat(owner.sql()).containsIgnoringCase("from owners");
+			assertThat(owner.binds()).containsExactly("6");
+			assertThat(owner.plan()).isNotEmpty().allMatch((row) -> row.toUpperCase().contains("SELECT"));
+		});
+	}
+
+	@Test
+	void shouldExplainStatementsWhenReadRatherThanOnRequestThread() throws SQLException {
+		DataSource dataSource = mock(DataSource.class);
+		given(dataSource.getConnection()).willThrow(new SQLException("unavailable"));
+		SlowRequestLog log = new SlowRequestLog(new SlowRequestProperties(Duration.ZERO, 1, Duration.ZERO, 10, true),
+				dataSource);
+		RequestTrace.begin(10);
+		RequestTrace.current().statement("select * from owners where id = ?", List.of(6), 0, 1_000_000);
+
+		log.record("GET", "/owners/6", RequestTrace.end());
+		verify(dataSource, never()).getConnection();
+
+		assertThat(log.getRequests()).singleElement()
+			.satisfies((request) -> assertThat(request.statements().get(0).plan())
+				.containsExactly("EXPLAIN failed: unavailable"));
+		assertThat(log.getRequests()).hasSize(1);
+		verify(dataSource).getConnection();
+	}
+
+	@Test
+	void shouldMaskBindsUnlessShown() {
+		SlowRequestLog log = new SlowRequestLog(new SlowRequestProperties(Duration.ZERO, 1, Duration.ZERO, 10, false),
+				null);
+		RequestTrace.begin(10);
+		RequestTrace.current().statement("select * from owners where last_name like ?", List.of("Davis%"), 0, 0);
+
+		log.record("GET", "/owners?lastName=Davis", RequestTrace.end());
+
+		assertThat(log.getRequests()).singleElement()
+			.satisfies((request) -> assertThat(request.statements().get(0).binds()).containsExactly("******"));
+	}
+
+	@Test
+	void shouldKeepMostRecentRequestsSlowestFirst() throws Exception {
+		this.mockMvc.perform(get("/owners/{ownerId}", 1));
+		this.mockMvc.perform(get("/vets.html"));
+		this.mockMvc.perform(get("/owners/{ownerId}", 2));
+
+		assertThat(this.log.getRequests()).extracting(SlowRequest::path)
+			.containsExactlyInAnyOrder("/vets.html", "/owners/2");
+		assertThat(this.log.getRequests()).extracting(SlowRequest::totalMillis)
+			.isSortedAccordingTo((a, b) -> Double.compare(b, a));
+	}
+
+	@Test
+	void shouldExposeSlowRequestsAsEndpoint() throws Exception {
+		this.mockMvc.perform(get("/owners?lastName=Davis"));
+
+		this.mockMvc.perform(get("/actuator/slowrequests"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$[0].path").value("/owners?lastName=Davis"))
+			.andExpect(jsonPath("$[0].statements[*].binds[*]", hasItem(startsWith("Davis"))));
+
+		this.mockMvc.perform(delete("/actuator/slowrequests")).andExpect(status().isNoContent());
+		assertThat(this.log.getRequests()).isEmpty();
+	}
+
+}
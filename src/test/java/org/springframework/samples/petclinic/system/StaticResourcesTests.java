@@ -0,0 +1,106 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.system;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.samples.petclinic.PetClinicApplication;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Integration tests of the fingerprinted and precompressed static resources.
+ */
+@SpringBootTest(classes = PetClinicApplication.class)
+@AutoConfigureMockMvc
+class StaticResourcesTests {
+
+	private static final Pattern STYLESHEET = Pattern.compile("/resources/css/petclinic-[0-9a-f]{32}\\.css");
+
+	private static final String IMMUTABLE = "max-age=31536000, public, immutable";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Test
+	void shouldRenderFingerprintedLinks() throws Exception {
+		String page = this.mockMvc.perform(get("/")).andReturn().getResponse().getContentAsString();
+
+		assertThat(page).containsPattern(STYLESHEET)
+			.containsPattern("/webjars/font-awesome/4.7.0/css/font-awesome.min-[0-9a-f]{32}\\.css")
+			.containsPattern("/webjars/bootstrap/5.3.3/dist/js/bootstrap.bundle.min-[0-9a-f]{32}\\.js")
+			.containsPattern("/resources/images/spring-logo-[0-9a-f]{32}\\.svg");
+	}
+
+	@Test
+	void shouldServeFingerprintedResourcesPrecompressedAndImmutable() throws Exception {
+		String stylesheet = stylesheet();
+
+		this.mockMvc.perform(get(stylesheet).header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+			.andExpect(status().isOk())
+			.andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+			.andExpect(header().string(HttpHeaders.VARY, "Accept-Encoding"))
+			.andExpect(header().string(HttpHeaders.CACHE_CONTROL, IMMUTABLE));
+		this.mockMvc.perform(get(stylesheet))
+			.andExpect(status().isOk())
+			.andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+			.andExpect(header().string(HttpHeaders.CACHE_CONTROL, IMMUTABLE));
+	}
+
+	@Test
+	void shouldFingerprintStylesheetLinks() throws Exception {
+		String css = this.mockMvc.perform(get(stylesheet())).andReturn().getResponse().getContentAsString();
+
+		assertThat(css).containsPattern("url\\(\"../fonts/montserrat-webfont-[0-9a-f]{32}\\.woff\"\\)");
+		this.mockMvc.perform(get("/webjars/font-awesome/4.7.0/css/font-awesome.min.css"))
+			.andExpect(content -> assertThat(content.getResponse().getContentAsString())
+				.containsPattern("url\\('../fonts/fontawesome-webfont-[0-9a-f]{32}\\.woff2\\?v=4.7.0'\\)"));
+	}
+
+	@Test
+	void shouldServePlainUrlsWithShortLivedCaching() throws Exception {
+		this.mockMvc.perform(get("/resources/css/petclinic.css"))
+			.andExpect(status().isOk())
+			.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=43200"));
+	}
+
+	@Test
+	void shouldNotServeStaleFingerprints() throws Exception {
+		this.mockMvc.perform(get("/resources/css/petclinic-0123456789abcdef0123456789abcdef.css"))
+			.andExpect(status().isNotFound())
+			.andExpect(
+					header().string(HttpHeaders.CACHE_CONTROL, org.hamcrest.Matchers.not(containsString("immutable"))));
+	}
+
+	private String stylesheet() throws Exception {
+		String page = this.mockMvc.perform(get("/")).andReturn().getResponse().getContentAsString();
+		Matcher matcher = STYLESHEET.matcher(page);
+		assertThat(matcher.find()).isTrue();
+		return matcher.group();
+	}
+
+}
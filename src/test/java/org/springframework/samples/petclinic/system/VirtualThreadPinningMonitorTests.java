@@ -0,0 +1,58 @@
+/*
+ * Copyright 2012-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.samples.petclinic.system;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Test class for {@link VirtualThreadPinningMonitor}
+ */
+class VirtualThreadPinningMonitorTests {
+
+	private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+		.withBean(SimpleMeterRegistry.class)
+		.withUserConfiguration(VirtualThreadPinningMonitor.class);
+
+	@Test
+	void shouldNotMonitorPlatformThreads() {
+		this.contextRunner.run(context -> assertThat(context).doesNotHaveBean(VirtualThreadPinningMonitor.class));
+	}
+
+	@Test
+	@EnabledForJreRange(max = JRE.JAVA_20)
+	void shouldNotMonitorBeforeVirtualThreadsAreAvailable() {
+		this.contextRunner.withPropertyValues("spring.threads.virtual.enabled=true")
+			.run(context -> assertThat(context).doesNotHaveBean(VirtualThreadPinningMonitor.class));
+	}
+
+	@Test
+	@EnabledForJreRange(min = JRE.JAVA_21)
+	void shouldMonitorVirtualThreads() {
+		this.contextRunner.withPropertyValues("spring.threads.virtual.enabled=true").run(context -> {
+			assertThat(context).hasSingleBean(VirtualThreadPinningMonitor.class);
+			assertThat(context.getBean(VirtualThreadPinningMonitor.class).isRunning()).isTrue();
+			assertThat(context.getBean(SimpleMeterRegistry.class).find("petclinic.threads.pinned").timer()).isNotNull();
+		});
+	}
+
+}
@@ -23,16 +23,26 @@ import org.junit.jupiter.api.condition.DisabledInNativeImage;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.aot.DisabledInAotMode;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Stream;
+
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -41,6 +51,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  */
 
 @WebMvcTest(VetController.class)
+@Import(VetRosterWriter.class)
 @DisabledInNativeImage
 @DisabledInAotMode
 class VetControllerTests {
@@ -51,6 +62,9 @@ class VetControllerTests {
 	@MockBean
 	private VetRepository vets;
 
+	@MockBean
+	private VetRosterGeneration generation;
+
 	private Vet james() {
 		Vet james = new Vet();
 		james.setFirstName("James");
@@ -71,11 +85,24 @@ class VetControllerTests {
 		return helen;
 	}
 
+	private VetSpecialtyRow row(Vet vet, Specialty specialty) {
+		Map<String, Object> values = new HashMap<>();
+		values.put("id", vet.getId());
+		values.put("firstName", vet.getFirstName());
+		values.put("lastName", vet.getLastName());
+		values.put("specialtyId", specialty != null ? specialty.getId() : null);
+		values.put("specialtyName", specialty != null ? specialty.getName() : null);
+		return new SpelAwareProxyProjectionFactory().createProjection(VetSpecialtyRow.class, values);
+	}
+
 	@BeforeEach
 	void setup() {
+		given(this.generation.current()).willReturn(new VetRosterGeneration.Generation("test-1", 1_000_000L));
 		given(this.vets.findAll()).willReturn(Lists.newArrayList(james(), helen()));
 		given(this.vets.findAll(any(Pageable.class)))
 			.willReturn(new PageImpl<Vet>(Lists.newArrayList(james(), helen())));
+		given(this.vets.streamAllWithSpecialties())
+			.willAnswer(invocation -> Stream.of(row(james(), null), row(helen(), helen().getSpecialties().get(0))));
 
 	}
 
@@ -97,4 +124,48 @@ class VetControllerTests {
 			.andExpect(jsonPath("$.vetList[0].id").value(1));
 	}
 
+	@Test
+	void testStreamResourcesVetList() throws Exception {
+		String vetList = mockMvc.perform(get("/vets").accept(MediaType.APPLICATION_JSON))
+			.andReturn()
+			.getResponse()
+			.getContentAsString();
+		mockMvc.perform(get("/vets").param("stream", "true").accept(MediaType.APPLICATION_JSON))
+			.andExpect(status().isOk())
+			.andExpect(content().contentType(MediaType.APPLICATION_JSON))
+			.andExpect(content().json(vetList, true));
+	}
+
+	@Test
+	void testStreamResourcesVetListAsNdjson() throws Exception {
+		mockMvc.perform(get("/vets").accept(MediaType.APPLICATION_NDJSON))
+			.andExpect(status().isOk())
+			.andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+			.andExpect(content().string("{\"id\":1,\"firstName\":\"James\",\"lastName\":\"Carter\","
+					+ "\"specialties\":[],\"nrOfSpecialties\":0,\"new\":false}\n"
+					+ "{\"id\":2,\"firstName\":\"Helen\",\"lastName\":\"Leary\","
+					+ "\"specialties\":[{\"id\":1,\"name\":\"radiology\",\"new\":false}],"
+					+ "\"nrOfSpecialties\":1,\"new\":false}\n"));
+	}
+
+	@Test
+	void testShowVetListNotModified() throws Exception {
+		mockMvc.perform(get("/vets.html").locale(Locale.ENGLISH).header("If-None-Match", "W/\"test-1-en\""))
+			.andExpect(status().isNotModified());
+		mockMvc.perform(get("/vets").accept(MediaType.APPLICATION_JSON).header("If-Modified-Since", 1_000_000L))
+			.andExpect(status().isNotModified());
+		mockMvc.perform(get("/vets").accept(MediaType.APPLICATION_JSON).header("If-None-Match", "W/\"test-0\""))
+			.andExpect(status().isOk())
+			.andExpect(header().string("ETag", "W/\"test-1\""));
+		verify(this.vets, never()).findAll(any(Pageable.class));
+		verify(this.vets, times(1)).findAll();
+	}
+
+	@Test
+	void testShowVetListModifiedInOtherLocale() throws Exception {
+		mockMvc.perform(get("/vets.html").locale(Locale.GERMAN).header("If-None-Match", "W/\"test-1-en\""))
+			.andExpect(status().isOk())
+			.andExpect(header().string("ETag", "W/\"test-1-de\""));
+	}
+
 }
@@ -0,0 +1,5 @@
+DELETE FROM vet_specialties WHERE vet_id > 100000;
+DELETE FROM vets WHERE id > 100000;
+DELETE FROM visits WHERE id > 100000;
+DELETE FROM pets WHERE id > 100000;
+DELETE FROM owners WHERE id > 100000;
@@ -0,0 +1,13 @@
+-- A dataset scaled well past the sample data, for query budgets to hold against: 300
+-- owners with 3 pets each and 10 visits per pet, and 100 vets with a specialty each.
+-- Ids start at 100001, far above the ids allocated while the tests run.
+INSERT INTO owners (id, first_name, last_name, address, city, telephone, version)
+  SELECT 100000 + X, 'Scaled', 'Scaled' || X, X || ' Main St.', 'Madison', '6085550000', 0 FROM SYSTEM_RANGE(1, 300);
+INSERT INTO pets (id, name, birth_date, type_id, owner_id)
+  SELECT 100000 + X, 'Pet' || X, DATE '2020-01-01', 1 + MOD(X, 6), 100000 + (X + 2) / 3 FROM SYSTEM_RANGE(1, 900);
+INSERT INTO visits (id, pet_id, visit_date, description)
+  SELECT 100000 + X, 100000 + (X + 9) / 10, DATEADD('DAY', X, DATE '2020-01-01'), 'checkup' FROM SYSTEM_RANGE(1, 9000);
+INSERT INTO vets (id, first_name, last_name)
+  SELECT 100000 + X, 'Scaled', 'Vet' || X FROM SYSTEM_RANGE(1, 100);
+INSERT INTO vet_specialties (vet_id, specialty_id)
+  SELECT 100000 + X, 1 + MOD(X, 3) FROM SYSTEM_RANGE(1, 100);